@@ -0,0 +1,35 @@
+#!/bin/sh
+# Startup time of an EmoNotes image, repeated RUNS times against the compose Postgres:
+#   docker compose up -d postgres
+#   docker/measure-startup.sh emonotes:jvm 10 > jvm.csv
+#   docker/measure-startup.sh emonotes:optimized 10 > optimized.csv
+# Columns: run, started_s (Spring's "Started EmoNotesApplication in"), first_response_ms
+# (container start until the first HTTP answer on :8080, any status). Needs GNU date and curl.
+set -eu
+
+IMAGE=${1:?usage: measure-startup.sh <image> [runs]}
+RUNS=${2:-5}
+NETWORK=${NETWORK:-$(basename "$(pwd)")_default}
+PORT=${PORT:-18080}
+TIMEOUT_S=${TIMEOUT_S:-120}
+
+echo "run,started_s,first_response_ms"
+for run in $(seq 1 "$RUNS"); do
+    begin=$(date +%s%N)
+    cid=$(docker run -d --rm --network "$NETWORK" --env-file .env -p "$PORT:8080" "$IMAGE")
+    deadline=$(( $(date +%s) + TIMEOUT_S ))
+    # 401 on an unauthenticated request still means the whole filter chain is up
+    until [ "$(curl -s -o /dev/null -w '%{http_code}' "http://localhost:$PORT/api/notes/all" || true)" != "000" ]; do
+        if [ "$(date +%s)" -ge "$deadline" ]; then
+            echo "run $run: no response within ${TIMEOUT_S}s" >&2
+            docker logs "$cid" >&2
+            docker stop "$cid" >/dev/null
+            exit 1
+        fi
+        sleep 0.02
+    done
+    first=$(date +%s%N)
+    started=$(docker logs "$cid" 2>&1 | sed -n 's/.*Started EmoNotesApplication in \([0-9.]*\) seconds.*/\1/p')
+    echo "$run,$started,$(( (first - begin) / 1000000 ))"
+    docker stop "$cid" >/dev/null
+done
@@ -0,0 +1,11 @@
+#!/bin/bash
+# Первый запуск: копия primary через pg_basebackup, -R пишет standby.signal и primary_conninfo
+set -e
+if [ ! -s "$PGDATA/PG_VERSION" ]; then
+    until PGPASSWORD="$REPLICATION_PASSWORD" pg_basebackup -h postgres -U replicator -D "$PGDATA" -R -X stream -P; do
+        echo "Waiting for primary..."
+        sleep 2
+    done
+    chmod 700 "$PGDATA"
+fi
+exec docker-entrypoint.sh postgres
@@ -0,0 +1,73 @@
+// EventSource не умеет слать Authorization, поэтому SSE читаем через fetch и разбираем сами
+const RETRY_MIN_MS = 1000;
+const RETRY_MAX_MS = 30000;
+
+export const subscribeNoteEvents = ({ onEvent, onStatus }) => {
+    const controller = new AbortController();
+    let lastEventId = null;
+    let retryMs = RETRY_MIN_MS;
+
+    const dispatch = (block) => {
+        let id = null;
+        let name = 'message';
+        const data = [];
+        for (const line of block.split('\n')) {
+            if (line.startsWith(':')) continue; // heartbeat
+            const colon = line.indexOf(':');
+            const field = colon === -1 ? line : line.slice(0, colon);
+            const value = colon === -1 ? '' : line.slice(colon + 1).replace(/^ /, '');
+            if (field === 'id') id = value;
+            else if (field === 'event') name = value;
+            else if (field === 'data') data.push(value);
+        }
+        if (id !== null) lastEventId = id;
+        if (data.length === 0) return;
+        try {
+            onEvent(name, JSON.parse(data.join('\n')));
+        } catch (error) {
+            console.error('Bad note event', error);
+        }
+    };
+
+    const connect = async () => {
+        while (!controller.signal.aborted) {
+            try {
+                const headers = { Accept: 'text/event-stream' };
+                const token = localStorage.getItem('token');
+                if (token) headers.Authorization = `Bearer ${token}`;
+                if (lastEventId !== null) headers['Last-Event-ID'] = lastEventId;
+
+                const res = await fetch('/api/notes/events', { headers, signal: controller.signal });
+                if (res.status === 401 || res.status === 403) {
+                    onStatus?.(false);
+                    return; // токен больше не действует, переподключаться бессмысленно
+                }
+                if (!res.ok || !res.body) throw new Error(`Event stream failed: ${res.status}`);
+
+                onStatus?.(true);
+                retryMs = RETRY_MIN_MS;
+                const reader = res.body.pipeThrough(new TextDecoderStream()).getReader();
+                let buffer = '';
+                for (;;) {
+                    const { value, done } = await reader.read();
+                    if (done) break;
+                    buffer += value.replace(/\r\n?/g, '\n');
+                    let end;
+                    while ((end = buffer.indexOf('\n\n')) !== -1) {
+                        dispatch(buffer.slice(0, end));
+                        buffer = buffer.slice(end + 2);
+                    }
+                }
+            } catch (error) {
+                if (controller.signal.aborted) return;
+                console.warn('Note event stream disconnected', error);
+            }
+            onStatus?.(false);
+            await new Promise(resolve => setTimeout(resolve, retryMs));
+            retryMs = Math.min(retryMs * 2, RETRY_MAX_MS);
+        }
+    };
+
+    connect();
+    return () => controller.abort();
+};
@@ -7,6 +7,7 @@ import api from '../api/axios';
 export const NoteModal = ({ isOpen, onClose, onSubmit, initialData }) => {
     const [title, setTitle] = useState('');
     const [content, setContent] = useState('');
+    const [version, setVersion] = useState(null);
 
     // Generate a unique key for local storage based on whether we are editing or creating
     const draftKey = `emonotes_draft_${initialData ? initialData.id : 'new'}`;
@@ -22,6 +23,7 @@ export const NoteModal = ({ isOpen, onClose, onSubmit, initialData }) => {
                 // Priority 3: Fresh start (New Note)
                 setTitle('');
                 setContent('');
+                setVersion(null);
                 setLoadedId('new');
                 return;
             }
@@ -33,6 +35,7 @@ export const NoteModal = ({ isOpen, onClose, onSubmit, initialData }) => {
             try {
                 const res = await api.get(`/api/notes/get/${initialData.id}`);
                 fullNoteData = res.data;
+                setVersion(res.data?.version ?? null);
             } catch (error) {
                 console.error("Failed to fetch full note details", error);
             }
@@ -88,7 +91,7 @@ export const NoteModal = ({ isOpen, onClose, onSubmit, initialData }) => {
 
     const handleSubmit = (e) => {
         e.preventDefault();
-        onSubmit({ title, content });
+        onSubmit({ title, content }, version);
         // Clear draft on successful submit action (optimistic)
         localStorage.removeItem(draftKey);
     };
@@ -1,5 +1,6 @@
-import { useEffect, useState } from 'react';
+import { useEffect, useRef, useState } from 'react';
 import api from '../api/axios';
+import { subscribeNoteEvents } from '../api/noteEvents';
 import { NoteCard } from '../components/NoteCard';
 import { NoteModal } from '../components/NoteModal';
 import { Button } from '../components/Button';
@@ -14,13 +15,18 @@ export const Dashboard = () => {
     const { showToast, showConfirm, showAlert } = useUI();
 
     const [error, setError] = useState(null);
+    const [nextCursor, setNextCursor] = useState(null);
+    const [loadingMore, setLoadingMore] = useState(false);
+    // Пока лента событий подключена, список патчится из неё; без неё - перечитываем после своих изменений
+    const liveRef = useRef(false);
 
     const fetchNotes = async () => {
         try {
             setLoading(true);
             setError(null);
             const res = await api.get('/api/notes/all');
-            setNotes(Array.isArray(res.data) ? res.data : []);
+            setNotes(Array.isArray(res.data?.notes) ? res.data.notes : []);
+            setNextCursor(res.data?.nextCursor ?? null);
         } catch (error) {
             console.error("Failed to fetch notes", error);
             setError(error);
@@ -30,14 +36,48 @@ export const Dashboard = () => {
         }
     };
 
+    const fetchMoreNotes = async () => {
+        if (!nextCursor) return;
+        try {
+            setLoadingMore(true);
+            const res = await api.get('/api/notes/all', { params: { cursor: nextCursor } });
+            const page = Array.isArray(res.data?.notes) ? res.data.notes : [];
+            setNotes(prev => [...prev, ...page]);
+            setNextCursor(res.data?.nextCursor ?? null);
+        } catch (error) {
+            console.error("Failed to fetch more notes", error);
+            showToast("Failed to fetch notes", 'error');
+        } finally {
+            setLoadingMore(false);
+        }
+    };
+
     useEffect(() => {
         fetchNotes();
     }, []);
 
+    useEffect(() => {
+        const applyChange = (type, change) => {
+            if (type === 'created') {
+                setNotes(prev => prev.some(n => n.id === change.id) ? prev : [change, ...prev]);
+            } else if (type === 'updated') {
+                setNotes(prev => prev.map(n => n.id === change.id ? { ...n, ...change } : n));
+            } else if (type === 'deleted') {
+                setNotes(prev => prev.filter(n => n.id !== change.id));
+            } else if (type === 'reset') {
+                fetchNotes();
+            }
+        };
+        return subscribeNoteEvents({
+            onEvent: applyChange,
+            onStatus: (connected) => { liveRef.current = connected; },
+        });
+    }, []);
+
     const handleCreate = async (data) => {
         try {
             await api.post('/api/notes/create', data);
-            fetchNotes(); // Refresh list to get ID and Date from server
+            if (!liveRef.current) fetchNotes(); // иначе заметка придёт событием created
             setIsModalOpen(false);
             showToast("Note created successfully", 'success');
         } catch (error) {
@@ -46,16 +86,27 @@ export const Dashboard = () => {
         }
     };
 
-    const handleUpdate = async (data) => {
+    const handleUpdate = async (data, version) => {
         if (!editingNote) return;
+        // Без версии сервер ответит 428: не перезаписываем вслепую, черновик остаётся в localStorage
+        if (version == null) {
+            showToast("Couldn't load the latest version of this note, reopen it and try again", 'error');
+            return;
+        }
         try {
-            await api.put(`/api/notes/update/${editingNote.id}`, data);
-            fetchNotes();
+            // If-Match не даёт перезаписать правки, сделанные с другого устройства
+            const headers = { 'If-Match': `"v${version}"` };
+            await api.put(`/api/notes/update/${editingNote.id}`, data, { headers });
+            if (!liveRef.current) fetchNotes();
             setIsModalOpen(false);
             setEditingNote(null);
             showToast("Note updated", 'success');
         } catch (error) {
             console.error("Update error", error);
+            if (error.response?.status === 412 || error.response?.status === 409) {
+                showToast("Note was changed elsewhere, reopen it to get the latest version", 'error');
+                return;
+            }
             showToast("Failed to update note", 'error');
         }
     };
@@ -132,6 +183,14 @@ export const Dashboard = () => {
                 </div>
             )}
 
+            {!loading && !error && nextCursor && (
+                <div className="flex justify-center mt-8">
+                    <Button variant="tonal" onClick={fetchMoreNotes} disabled={loadingMore}>
+                        {loadingMore ? 'Loading...' : 'Load more'}
+                    </Button>
+                </div>
+            )}
+
             <NoteModal
                 isOpen={isModalOpen}
                 onClose={() => setIsModalOpen(false)}
@@ -0,0 +1,39 @@
+package com.datepeice.emonotes.benchmark;
+
+final class BenchmarkData {
+    private static final String[] WORDS = {
+            "today", "felt", "calm", "after", "a", "long", "walk", "by", "the", "river",
+            "and", "wrote", "down", "what", "made", "me", "anxious", "yesterday"
+    };
+
+    private BenchmarkData() {
+    }
+
+    // Markdown в том виде, в каком его сохраняет редактор (turndown): заголовок, абзацы и список
+    // с редким выделением, между блоками пустая строка
+    static String markdown(int chars) {
+        var markdown = new StringBuilder(chars + 64);
+        int word = 0;
+        int block = 0;
+        while (markdown.length() < chars) {
+            if (block > 0) {
+                markdown.append("\n\n");
+            }
+            if (block % 5 == 0) {
+                markdown.append("## ").append(WORDS[word++ % WORDS.length]).append("\n\n");
+            }
+            boolean list = block % 5 == 3;
+            for (int i = 0; i < 40 && markdown.length() < chars; i++, word++) {
+                if (list && i % 8 == 0) {
+                    markdown.append(i == 0 ? "- " : "\n- ");
+                } else if (i > 0) {
+                    markdown.append(' ');
+                }
+                String next = WORDS[word % WORDS.length];
+                markdown.append(word % 23 == 0 ? "**" + next + "**" : next);
+            }
+            block++;
+        }
+        return markdown.toString();
+    }
+}
@@ -0,0 +1,85 @@
+package com.datepeice.emonotes.benchmark;
+
+import com.datepeice.emonotes.dto.NotePage;
+import com.datepeice.emonotes.dto.NotePreview;
+import com.datepeice.emonotes.dto.NoteResponse;
+import com.datepeice.emonotes.entity.Note;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Ответы /api/notes/all (страница превью) и /api/notes/get/{id} (полная заметка) в каждом формате,
+// который отдаёт API; размер ответа в байтах виден по результату previewPage/fullNotes
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JsonSerializationBenchmark {
+    @Param({"1", "50", "100"})
+    public int size;
+
+    // json - без Blackbird, как было до JacksonConfig; остальные - с ним, как в приложении
+    @Param({"json", "json-blackbird", "cbor", "smile"})
+    public String format;
+
+    private ObjectMapper objectMapper;
+    private NotePage page;
+    private List<NoteResponse> notes;
+
+    @Setup
+    public void setUp() {
+        JsonFactory factory = switch (format) {
+            case "cbor" -> new CBORFactory();
+            case "smile" -> new SmileFactory();
+            default -> new JsonFactory();
+        };
+        // Те же настройки дат, что у ObjectMapper из Spring Boot; модули явно - Blackbird тоже находится через ServiceLoader
+        objectMapper = new ObjectMapper(factory)
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        if (!format.equals("json")) {
+            objectMapper.registerModule(new BlackbirdModule());
+        }
+
+        List<NotePreview> previews = new ArrayList<>(size);
+        notes = new ArrayList<>(size);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < size; i++) {
+            var note = new Note();
+            note.setId((long) i);
+            note.setTitle("Note " + i);
+            note.setContent(BenchmarkData.markdown(2000));
+            note.setCreatedAt(now.minusMinutes(i));
+            notes.add(NoteResponse.of(note));
+            previews.add(new NotePreview(note.getId(), note.getTitle(), note.getPreview(), note.getCreatedAt()));
+        }
+        page = new NotePage(previews, "MjAyNi0wMS0wMVQwMDowMHwx", "NDI");
+    }
+
+    @Benchmark
+    public byte[] previewPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] fullNotes() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(notes);
+    }
+}
@@ -0,0 +1,61 @@
+package com.datepeice.emonotes.benchmark;
+
+import com.datepeice.emonotes.entity.User;
+import com.datepeice.emonotes.security.JwtCore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtBenchmark {
+    private static final String SECRET = "benchmark-secret-key-that-is-long-enough-for-hs256";
+
+    private JwtCore jwtCore;
+    private JwtCore cachingJwtCore;
+    private Authentication authentication;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtCore = new JwtCore(SECRET, 0);
+        cachingJwtCore = new JwtCore(SECRET, 10_000);
+
+        var user = new User();
+        user.setUsername("alice");
+        user.setRoles("ROLE_USER");
+        authentication = new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+        token = jwtCore.generateToken(authentication);
+        cachingJwtCore.validateToken(token);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtCore.generateToken(authentication);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtCore.validateToken(token);
+    }
+
+    // Повторная проверка того же токена с включённым emonotes.jwt.verified-cache-size
+    @Benchmark
+    public boolean validateTokenCached() {
+        return cachingJwtCore.validateToken(token);
+    }
+
+    @Benchmark
+    public String getUsernameFromToken() {
+        return jwtCore.getUsernameFromToken(token);
+    }
+}
@@ -0,0 +1,42 @@
+package com.datepeice.emonotes.benchmark;
+
+import com.datepeice.emonotes.service.MfaService;
+import com.warrenstrange.googleauth.GoogleAuthenticator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+// verifyCode проверяет окно из нескольких интервалов, поэтому неверный код - худший случай
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MfaBenchmark {
+    private final MfaService mfaService = new MfaService(new SimpleMeterRegistry());
+    private String secret;
+    private int validCode;
+    private int invalidCode;
+
+    @Setup
+    public void setUp() {
+        secret = mfaService.generateSecret();
+        validCode = new GoogleAuthenticator().getTotpPassword(secret);
+        invalidCode = (validCode + 1) % 1_000_000;
+    }
+
+    @Benchmark
+    public boolean verifyValidCode() {
+        return mfaService.verifyCode(secret, validCode);
+    }
+
+    @Benchmark
+    public boolean verifyInvalidCode() {
+        return mfaService.verifyCode(secret, invalidCode);
+    }
+}
@@ -0,0 +1,78 @@
+package com.datepeice.emonotes.benchmark;
+
+import com.datepeice.emonotes.entity.Note;
+import com.datepeice.emonotes.entity.NoteContentConverter;
+import com.datepeice.emonotes.util.MarkdownText;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+// Превью строится при каждой записи заметки (бывший NoteController.truncateContent),
+// конвертер контента работает на каждом чтении и записи
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class NotePreviewBenchmark {
+    @Param({"150", "2000", "50000"})
+    public int contentChars;
+
+    private final NoteContentConverter converter = new NoteContentConverter();
+    private String markdown;
+    private byte[] stored;
+    private int rawLength;
+
+    // Суммарные байты до и после конвертера за итерацию, в results.json - secondaryMetrics.
+    // storedBytes / rawBytes - доля, которую контент занимает в content_data после сжатия
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class ContentSize {
+        public long rawBytes;
+        public long storedBytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            rawBytes = 0;
+            storedBytes = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        markdown = BenchmarkData.markdown(contentChars);
+        stored = converter.convertToDatabaseColumn(markdown);
+        rawLength = markdown.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    @Benchmark
+    public String preview() {
+        return MarkdownText.preview(markdown, Note.PREVIEW_LENGTH);
+    }
+
+    @Benchmark
+    public String toPlainText() {
+        return MarkdownText.toPlainText(markdown);
+    }
+
+    @Benchmark
+    public byte[] encodeContent(ContentSize size) {
+        byte[] data = converter.convertToDatabaseColumn(markdown);
+        size.rawBytes += rawLength;
+        size.storedBytes += data.length;
+        return data;
+    }
+
+    @Benchmark
+    public String decodeContent() {
+        return converter.convertToEntityAttribute(stored);
+    }
+}
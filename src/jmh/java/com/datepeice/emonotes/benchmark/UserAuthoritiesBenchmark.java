@@ -0,0 +1,38 @@
+package com.datepeice.emonotes.benchmark;
+
+import com.datepeice.emonotes.entity.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+// Вызывается на каждом аутентифицированном запросе: JwtRequestFilter и DaoAuthenticationProvider
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class UserAuthoritiesBenchmark {
+    @Param({"ROLE_USER", "ROLE_USER,ROLE_ADMIN,ROLE_SUPPORT"})
+    public String roles;
+
+    private User user;
+
+    @Setup
+    public void setUp() {
+        user = new User();
+        user.setUsername("alice");
+        user.setRoles(roles);
+    }
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return user.getAuthorities();
+    }
+}
@@ -0,0 +1,48 @@
+package com.datepeice.emonotes.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Задержки одного эндпоинта; Recorder позволяет писать из многих потоков без блокировок
+class EndpointStats {
+    EndpointStats(String name) {
+        this.name = name;
+    }
+
+    private static final long MAX_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final String name;
+    private final Recorder recorder = new Recorder(MAX_TRACKABLE_NANOS, 3);
+    private final LongAdder errors = new LongAdder();
+    private final Histogram total = new Histogram(MAX_TRACKABLE_NANOS, 3);
+
+    String name() {
+        return name;
+    }
+
+    void record(long latencyNanos, boolean success) {
+        recorder.recordValue(Math.min(latencyNanos, MAX_TRACKABLE_NANOS));
+        if (!success) {
+            errors.increment();
+        }
+    }
+
+    // Сбрасывает всё записанное, например после прогрева
+    void reset() {
+        recorder.reset();
+        errors.reset();
+        total.reset();
+    }
+
+    Histogram snapshot() {
+        total.add(recorder.getIntervalHistogram());
+        return total;
+    }
+
+    long errors() {
+        return errors.sum();
+    }
+}
@@ -0,0 +1,28 @@
+package com.datepeice.emonotes.loadtest;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+final class LoadTestContent {
+    private LoadTestContent() {
+    }
+
+    private static final String[] WORDS = {
+            "calm", "anxious", "grateful", "tired", "walk", "river", "work", "friends",
+            "morning", "deadline", "coffee", "rain", "happy", "sad", "music", "family"
+    };
+
+    // Абзацы HTML от 0.5 до 4 КБ, как у заметок из редактора
+    static String html() {
+        var random = ThreadLocalRandom.current();
+        int target = random.nextInt(500, 4000);
+        var html = new StringBuilder(target + 64);
+        while (html.length() < target) {
+            html.append("<p>");
+            for (int i = 0; i < 30; i++) {
+                html.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+            }
+            html.append("</p>");
+        }
+        return html.toString();
+    }
+}
@@ -0,0 +1,70 @@
+package com.datepeice.emonotes.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Машиночитаемый отчёт: один JSON на прогон, чтобы сравнивать сборки простым diff
+final class LoadTestReport {
+    private LoadTestReport() {
+    }
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    static Map<String, Object> build(LoadTestSettings settings, boolean virtualThreads, Duration measured,
+                                     List<EndpointStats> endpoints) {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("timestamp", Instant.now().toString());
+        report.put("javaVersion", Runtime.version().toString());
+        report.put("virtualThreads", virtualThreads);
+        report.put("settings", settings);
+        report.put("measuredSeconds", measured.toMillis() / 1000.0);
+
+        Map<String, Object> results = new LinkedHashMap<>();
+        Histogram all = new Histogram(3);
+        long allErrors = 0;
+        for (EndpointStats endpoint : endpoints) {
+            Histogram histogram = endpoint.snapshot();
+            all.add(histogram);
+            allErrors += endpoint.errors();
+            results.put(endpoint.name(), summary(histogram, endpoint.errors(), measured));
+        }
+        results.put("total", summary(all, allErrors, measured));
+        report.put("endpoints", results);
+        return report;
+    }
+
+    static void write(Map<String, Object> report, String path) throws IOException {
+        Path file = Path.of(path);
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        new ObjectMapper()
+                .findAndRegisterModules()
+                .enable(SerializationFeature.INDENT_OUTPUT)
+                .disable(SerializationFeature.WRITE_DURATIONS_AS_TIMESTAMPS)
+                .writeValue(file.toFile(), report);
+    }
+
+    private static Map<String, Object> summary(Histogram histogram, long errors, Duration measured) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        long count = histogram.getTotalCount();
+        summary.put("requests", count);
+        summary.put("errors", errors);
+        summary.put("throughputPerSecond", count / Math.max(0.001, measured.toMillis() / 1000.0));
+        summary.put("p50Ms", histogram.getValueAtPercentile(50) / NANOS_PER_MILLI);
+        summary.put("p99Ms", histogram.getValueAtPercentile(99) / NANOS_PER_MILLI);
+        summary.put("p999Ms", histogram.getValueAtPercentile(99.9) / NANOS_PER_MILLI);
+        summary.put("maxMs", histogram.getMaxValue() / NANOS_PER_MILLI);
+        return summary;
+    }
+}
@@ -0,0 +1,33 @@
+package com.datepeice.emonotes.loadtest;
+
+import java.time.Duration;
+
+// Параметры прогона задаются через -Dloadtest.* при запуске ./gradlew loadTest
+record LoadTestSettings(int users, int notesPerUser, int clientsPerUser, Duration warmup, Duration duration,
+                        int listWeight, int getWeight, int createWeight, int updateWeight, int deleteWeight,
+                        String reportPath) {
+
+    static LoadTestSettings fromSystemProperties() {
+        return new LoadTestSettings(
+                Integer.getInteger("loadtest.users", 50),
+                Integer.getInteger("loadtest.notes-per-user", 200),
+                Integer.getInteger("loadtest.clients-per-user", 2),
+                Duration.ofSeconds(Integer.getInteger("loadtest.warmup-seconds", 15)),
+                Duration.ofSeconds(Integer.getInteger("loadtest.duration-seconds", 60)),
+                Integer.getInteger("loadtest.mix.list", 40),
+                Integer.getInteger("loadtest.mix.get", 30),
+                Integer.getInteger("loadtest.mix.create", 10),
+                Integer.getInteger("loadtest.mix.update", 15),
+                Integer.getInteger("loadtest.mix.delete", 5),
+                System.getProperty("loadtest.report", "build/reports/load-test/results.json")
+        );
+    }
+
+    int clients() {
+        return users * clientsPerUser;
+    }
+
+    int totalWeight() {
+        return listWeight + getWeight + createWeight + updateWeight + deleteWeight;
+    }
+}
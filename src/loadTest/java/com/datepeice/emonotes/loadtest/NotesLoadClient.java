@@ -0,0 +1,161 @@
+package com.datepeice.emonotes.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Один виртуальный пользователь: свой токен и свой набор заметок, чтобы update и delete не мешали друг другу
+class NotesLoadClient {
+    NotesLoadClient(HttpClient http, ObjectMapper objectMapper, String baseUrl, String token, List<Long> noteIds,
+                    LoadTestSettings settings, Map<String, EndpointStats> stats) {
+        this.http = http;
+        this.objectMapper = objectMapper;
+        this.baseUrl = baseUrl;
+        this.token = token;
+        this.settings = settings;
+        this.stats = stats;
+        noteIds.forEach(id -> versions.put(id, 0L));
+        this.noteIds.addAll(noteIds);
+    }
+
+    static final String LIST = "GET /api/notes/all";
+    static final String GET = "GET /api/notes/get/{id}";
+    static final String CREATE = "POST /api/notes/create";
+    static final String UPDATE = "PUT /api/notes/update/{id}";
+    static final String DELETE = "DELETE /api/notes/delete/{id}";
+
+    // Ниже этого числа заметок клиент создаёт вместо удаления
+    private static final int MIN_NOTES = 10;
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient http;
+    private final ObjectMapper objectMapper;
+    private final String baseUrl;
+    private final String token;
+    private final LoadTestSettings settings;
+    private final Map<String, EndpointStats> stats;
+    private final List<Long> noteIds = new ArrayList<>();
+    private final Map<Long, Long> versions = new HashMap<>();
+
+    void run(long deadlineNanos) {
+        while (System.nanoTime() < deadlineNanos && !Thread.currentThread().isInterrupted()) {
+            try {
+                step();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void step() throws InterruptedException {
+        int roll = ThreadLocalRandom.current().nextInt(settings.totalWeight());
+        if ((roll -= settings.listWeight()) < 0) {
+            list();
+        } else if ((roll -= settings.getWeight()) < 0) {
+            get();
+        } else if ((roll -= settings.createWeight()) < 0) {
+            create();
+        } else if (roll - settings.updateWeight() < 0) {
+            update();
+        } else if (noteIds.size() > MIN_NOTES) {
+            delete();
+        } else {
+            create();
+        }
+    }
+
+    private void list() throws InterruptedException {
+        send(LIST, request("/api/notes/all?limit=50").GET().build());
+    }
+
+    private void get() throws InterruptedException {
+        if (noteIds.isEmpty()) {
+            list();
+            return;
+        }
+        send(GET, request("/api/notes/get/" + randomNoteId()).GET().build());
+    }
+
+    private void create() throws InterruptedException {
+        String body = json(Map.of("title", "Load test note", "content", LoadTestContent.html()));
+        HttpResponse<String> response = send(CREATE, request("/api/notes/create")
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build());
+        if (response != null && response.statusCode() == 200) {
+            try {
+                long id = objectMapper.readTree(response.body()).get("id").asLong();
+                noteIds.add(id);
+                versions.put(id, 0L);
+            } catch (IOException e) {
+                throw new IllegalStateException("Unexpected create response: " + response.body(), e);
+            }
+        }
+    }
+
+    private void update() throws InterruptedException {
+        if (noteIds.isEmpty()) {
+            create();
+            return;
+        }
+        long id = randomNoteId();
+        String body = json(Map.of("title", "Updated note", "content", LoadTestContent.html()));
+        HttpResponse<String> response = send(UPDATE, request("/api/notes/update/" + id)
+                .header("Content-Type", "application/json")
+                .header("If-Match", "\"v" + versions.get(id) + "\"")
+                .PUT(HttpRequest.BodyPublishers.ofString(body))
+                .build());
+        if (response != null) {
+            // ETag ответа вида "v<версия>"
+            response.headers().firstValue("ETag")
+                    .map(tag -> tag.replace("\"", "").substring(1))
+                    .ifPresent(version -> versions.put(id, Long.parseLong(version)));
+        }
+    }
+
+    private void delete() throws InterruptedException {
+        long id = noteIds.remove(ThreadLocalRandom.current().nextInt(noteIds.size()));
+        versions.remove(id);
+        send(DELETE, request("/api/notes/delete/" + id).DELETE().build());
+    }
+
+    private HttpResponse<String> send(String endpoint, HttpRequest request) throws InterruptedException {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+            stats.get(endpoint).record(System.nanoTime() - start, response.statusCode() / 100 == 2);
+            return response;
+        } catch (IOException e) {
+            stats.get(endpoint).record(System.nanoTime() - start, false);
+            return null;
+        }
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Authorization", "Bearer " + token);
+    }
+
+    private long randomNoteId() {
+        return noteIds.get(ThreadLocalRandom.current().nextInt(noteIds.size()));
+    }
+
+    private String json(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
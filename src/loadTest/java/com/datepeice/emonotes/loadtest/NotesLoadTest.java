@@ -0,0 +1,161 @@
+package com.datepeice.emonotes.loadtest;
+
+import com.datepeice.emonotes.entity.User;
+import com.datepeice.emonotes.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Весь стек под нагрузкой: JwtRequestFilter -> NoteController -> JPA -> Postgres.
+// Запуск: ./gradlew loadTest, отчёт в build/reports/load-test/results.json
+@Testcontainers
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.security.key=load-test-secret-key-that-is-long-enough-for-hs256",
+        "emonotes.rate-limit.enabled=false",
+        "emonotes.query-guard.strict=true",
+        "emonotes.query-guard.warn-threshold=20",
+        "management.server.port=0"
+})
+class NotesLoadTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static final String PASSWORD = "LoadTest#2024";
+    private static final int SEED_CHUNK = 200;
+
+    @LocalServerPort
+    private int port;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void mixedNoteTraffic() throws Exception {
+        var settings = LoadTestSettings.fromSystemProperties();
+        String baseUrl = "http://localhost:" + port;
+
+        try (ExecutorService httpExecutor = Executors.newVirtualThreadPerTaskExecutor();
+             ExecutorService clientExecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var http = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(httpExecutor)
+                    .build();
+
+            Map<String, EndpointStats> stats = new LinkedHashMap<>();
+            for (String endpoint : List.of(NotesLoadClient.LIST, NotesLoadClient.GET, NotesLoadClient.CREATE,
+                    NotesLoadClient.UPDATE, NotesLoadClient.DELETE)) {
+                stats.put(endpoint, new EndpointStats(endpoint));
+            }
+
+            List<NotesLoadClient> clients = new ArrayList<>();
+            for (int u = 0; u < settings.users(); u++) {
+                String username = "load" + u;
+                String token = seedUser(http, baseUrl, username);
+                List<Long> noteIds = seedNotes(http, baseUrl, token, settings.notesPerUser());
+                // Заметки пользователя делятся между его клиентами без пересечений
+                for (int c = 0; c < settings.clientsPerUser(); c++) {
+                    List<Long> own = new ArrayList<>();
+                    for (int i = c; i < noteIds.size(); i += settings.clientsPerUser()) {
+                        own.add(noteIds.get(i));
+                    }
+                    clients.add(new NotesLoadClient(http, objectMapper, baseUrl, token, own, settings, stats));
+                }
+            }
+
+            long deadline = System.nanoTime() + settings.warmup().plus(settings.duration()).toNanos();
+            for (NotesLoadClient client : clients) {
+                clientExecutor.submit(() -> client.run(deadline));
+            }
+
+            Thread.sleep(settings.warmup().toMillis());
+            stats.values().forEach(EndpointStats::reset);
+            long measureStart = System.nanoTime();
+
+            clientExecutor.shutdown();
+            assertThat(clientExecutor.awaitTermination(settings.duration().toSeconds() + 60, TimeUnit.SECONDS)).isTrue();
+            Duration measured = Duration.ofNanos(System.nanoTime() - measureStart);
+
+            Map<String, Object> report = LoadTestReport.build(settings, virtualThreads, measured, List.copyOf(stats.values()));
+            LoadTestReport.write(report, settings.reportPath());
+
+            @SuppressWarnings("unchecked")
+            var total = (Map<String, Object>) ((Map<String, Object>) report.get("endpoints")).get("total");
+            long requests = (long) total.get("requests");
+            long errors = (long) total.get("errors");
+            assertThat(requests).isPositive();
+            assertThat(errors).as("errors out of %d requests", requests).isLessThan(Math.max(1, requests / 100));
+        }
+    }
+
+    private String seedUser(HttpClient http, String baseUrl, String username) throws Exception {
+        var user = new User();
+        user.setUsername(username);
+        user.setPassword(passwordEncoder.encode(PASSWORD));
+        user.setRoles("ROLE_USER");
+        userRepository.save(user);
+
+        String body = objectMapper.writeValueAsString(Map.of("username", username, "password", PASSWORD));
+        HttpResponse<String> response = http.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/signin"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        assertThat(response.statusCode()).isEqualTo(200);
+        return response.body();
+    }
+
+    private List<Long> seedNotes(HttpClient http, String baseUrl, String token, int count) throws Exception {
+        List<Long> ids = new ArrayList<>(count);
+        while (ids.size() < count) {
+            List<Map<String, String>> create = new ArrayList<>();
+            for (int i = 0; i < Math.min(SEED_CHUNK, count - ids.size()); i++) {
+                create.add(Map.of("title", "Seed note " + (ids.size() + i), "content", LoadTestContent.html()));
+            }
+            String body = objectMapper.writeValueAsString(Map.of("create", create));
+            HttpResponse<String> response = http.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/notes/batch"))
+                    .header("Authorization", "Bearer " + token)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            assertThat(response.statusCode()).isEqualTo(200);
+            for (JsonNode id : objectMapper.readTree(response.body()).get("created")) {
+                ids.add(id.asLong());
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,140 @@
+package com.datepeice.emonotes.cache;
+
+import com.datepeice.emonotes.datasource.ReadYourWrites;
+import com.datepeice.emonotes.dto.NoteResponse;
+import com.datepeice.emonotes.repository.NoteRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+// Read-through кэш полных заметок по id. Владельца проверяет вызывающий по CachedNote.userId.
+// Промахи по одному ключу схлопываются: Caffeine.get выполняет загрузку один раз, остальные ждут её результат
+@Component
+public class NoteCache {
+    NoteCache(NoteRepository noteRepository, JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+              ReadYourWrites readYourWrites, MeterRegistry meterRegistry,
+              @Value("${emonotes.note-cache.maximum-weight:64MB}") DataSize maximumWeight,
+              @Value("${emonotes.note-cache.expire-after-access:30m}") Duration expireAfterAccess,
+              @Value("${emonotes.note-cache.notify.enabled:false}") boolean notifyEnabled) {
+        this.noteRepository = noteRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.readYourWrites = readYourWrites;
+        this.loadTransaction = new TransactionTemplate(transactionManager);
+        this.loadTransaction.setReadOnly(true);
+        this.notifyEnabled = notifyEnabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maximumWeight.toBytes())
+                .weigher((Long id, CachedNote note) -> note.weight())
+                .expireAfterAccess(expireAfterAccess)
+                .recordStats()
+                .build();
+        // cache.gets{result=hit|miss}, cache.evictions, cache.eviction.weight, cache.size с тегом cache=notes
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "notes");
+        Gauge.builder("emonotes.note-cache.weight", cache,
+                        c -> c.policy().eviction().map(e -> e.weightedSize().orElse(0)).orElse(0L))
+                .description("Approximate bytes held by cached note bodies")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public static final String CHANNEL = "emonotes_note_cache";
+    // Payload NOTIFY ограничен 8000 байтами, id до 19 цифр
+    private static final int IDS_PER_NOTIFY = 300;
+
+    private final NoteRepository noteRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ReadYourWrites readYourWrites;
+    private final TransactionTemplate loadTransaction;
+    private final boolean notifyEnabled;
+    private final Cache<Long, CachedNote> cache;
+
+    // Вес - примерный размер строк в памяти (UTF-16) плюс накладные расходы записи
+    public record CachedNote(Long userId, NoteResponse note) {
+        int weight() {
+            long chars = length(note.getContent()) + length(note.getTitle());
+            return (int) Math.min(Integer.MAX_VALUE, 2 * chars + 256);
+        }
+
+        private static int length(String value) {
+            return value != null ? value.length() : 0;
+        }
+    }
+
+    // Отсутствующие и удалённые заметки не кэшируются
+    public Optional<CachedNote> get(Long id) {
+        return Optional.ofNullable(cache.get(id, this::load));
+    }
+
+    // Вызывается внутри пишущей транзакции: локально сбрасываем после коммита, когда новая версия уже видна.
+    // Загрузка, начатая до коммита, завершится раньше invalidate, и её результат тоже уйдёт.
+    // Другим узлам - pg_notify в той же транзакции: Postgres доставит его только при коммите
+    public void evictAfterCommit(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(ids);
+            return;
+        }
+        List<Long> evicted = List.copyOf(ids);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict(evicted);
+            }
+        });
+        if (notifyEnabled) {
+            for (int from = 0; from < evicted.size(); from += IDS_PER_NOTIFY) {
+                String payload = evicted.subList(from, Math.min(from + IDS_PER_NOTIFY, evicted.size())).stream()
+                        .map(String::valueOf)
+                        .collect(Collectors.joining(","));
+                jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> null, CHANNEL, payload);
+            }
+        }
+    }
+
+    public void evict(Collection<Long> ids) {
+        cache.invalidateAll(ids);
+    }
+
+    public void clear() {
+        cache.invalidateAll();
+    }
+
+    static List<Long> parsePayload(String payload) {
+        List<Long> ids = new ArrayList<>();
+        for (String id : payload.split(",")) {
+            if (!id.isBlank()) {
+                ids.add(Long.parseLong(id.trim()));
+            }
+        }
+        return ids;
+    }
+
+    private CachedNote load(Long id) {
+        // Один SELECT по первичному ключу; user лениво загружаемый, его id берётся из прокси без запроса.
+        // Только с primary: с отстающей реплики в кэш попала бы старая версия, а сброс после коммита уже прошёл.
+        // Пишущая транзакция для этого не годится - маршрутизатор сделал бы читателя sticky на каждом промахе
+        return readYourWrites.onPrimary(() -> loadTransaction.execute(status -> noteRepository.findById(id)
+                .filter(note -> !note.isDeleted())
+                .map(note -> new CachedNote(note.getUser().getId(), NoteResponse.of(note)))
+                .orElse(null)));
+    }
+}
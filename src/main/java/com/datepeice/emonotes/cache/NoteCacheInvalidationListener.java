@@ -0,0 +1,94 @@
+package com.datepeice.emonotes.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+// Сбросы кэша с других узлов через LISTEN/NOTIFY. Держит своё соединение с primary мимо пула Hikari:
+// LISTEN живёт, пока живо соединение, и не должен занимать слот пула
+@Component
+@ConditionalOnProperty(name = "emonotes.note-cache.notify.enabled", havingValue = "true")
+public class NoteCacheInvalidationListener {
+    NoteCacheInvalidationListener(NoteCache noteCache, DataSourceProperties dataSourceProperties, MeterRegistry meterRegistry) {
+        this.noteCache = noteCache;
+        this.dataSourceProperties = dataSourceProperties;
+        this.received = meterRegistry.counter("emonotes.note-cache.notifications");
+        this.reconnects = meterRegistry.counter("emonotes.note-cache.listener.reconnects");
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(NoteCacheInvalidationListener.class);
+    private static final int POLL_TIMEOUT_MS = 5000;
+    private static final long MAX_BACKOFF_MS = 30_000;
+
+    private final NoteCache noteCache;
+    private final DataSourceProperties dataSourceProperties;
+    private final Counter received;
+    private final Counter reconnects;
+    private volatile boolean running = true;
+    private Thread thread;
+
+    @PostConstruct
+    void start() {
+        thread = new Thread(this::listen, "note-cache-listener");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        thread.interrupt();
+    }
+
+    private void listen() {
+        long backoffMs = 500;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + NoteCache.CHANNEL);
+                }
+                // Пока соединения не было, уведомления могли потеряться - не доверяем ничему закэшированному
+                noteCache.clear();
+                backoffMs = 500;
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MS);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        received.increment();
+                        noteCache.evict(NoteCache.parsePayload(notification.getParameter()));
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                reconnects.increment();
+                log.warn("Note cache listener lost its connection, retrying in {} ms", backoffMs, e);
+                try {
+                    Thread.sleep(backoffMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                backoffMs = Math.min(backoffMs * 2, MAX_BACKOFF_MS);
+            }
+        }
+    }
+}
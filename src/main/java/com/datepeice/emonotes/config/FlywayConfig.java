@@ -0,0 +1,20 @@
+package com.datepeice.emonotes.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class FlywayConfig {
+    // CDS-тренировка в docker build идёт без базы. Условие на spring.flyway.enabled в AOT-сборке
+    // вычислено заранее, поэтому миграции отключаются в рантайме здесь, а не выключением автоконфигурации
+    @Bean
+    FlywayMigrationStrategy flywayMigrationStrategy(@Value("${emonotes.startup.skip-migrations:false}") boolean skipMigrations) {
+        return flyway -> {
+            if (!skipMigrations) {
+                flyway.migrate();
+            }
+        };
+    }
+}
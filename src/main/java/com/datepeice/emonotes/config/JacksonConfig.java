@@ -0,0 +1,32 @@
+package com.datepeice.emonotes.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+// JSON остаётся форматом по умолчанию; CBOR и Smile отдаются по Accept (application/cbor,
+// application/x-jackson-smile) и принимаются по Content-Type. Converter-бины заменяют стандартные
+// на их местах в списке после JSON, но строятся тем же билдером Spring Boot, что и JSON ObjectMapper
+@Configuration
+public class JacksonConfig {
+    // Сериализаторы через сгенерированные лямбды вместо рефлексии; Spring Boot регистрирует Module-бины сам
+    @Bean
+    BlackbirdModule blackbirdModule() {
+        return new BlackbirdModule();
+    }
+
+    @Bean
+    MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
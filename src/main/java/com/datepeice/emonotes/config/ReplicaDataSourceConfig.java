@@ -0,0 +1,77 @@
+package com.datepeice.emonotes.config;
+
+import com.datepeice.emonotes.datasource.ReadYourWrites;
+import com.datepeice.emonotes.datasource.ReplicaProperties;
+import com.datepeice.emonotes.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.TaskScheduler;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+// Включается emonotes.datasource.routing.enabled=true; без него приложение работает с одним spring.datasource
+@Configuration
+@ConditionalOnProperty(name = "emonotes.datasource.routing.enabled", havingValue = "true")
+@EnableConfigurationProperties({DataSourceProperties.class, ReplicaProperties.class})
+public class ReplicaDataSourceConfig {
+
+    // Primary собирается так же, как его собрал бы Spring Boot: spring.datasource.* и spring.datasource.hikari.*
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource, ReplicaProperties properties,
+                                                             ReadYourWrites readYourWrites, MeterRegistry meterRegistry,
+                                                             TaskScheduler taskScheduler) {
+        List<DataSource> replicas = new ArrayList<>();
+        for (ReplicaProperties.Replica replica : properties.getReplicas()) {
+            // Пустой url (DB_REPLICA_URL не задан) - реплики нет, все чтения остаются на primary
+            if (replica.getUrl() != null && !replica.getUrl().isBlank()) {
+                replicas.add(replicaPool("replica-" + replicas.size(), replica, primaryDataSource, meterRegistry));
+            }
+        }
+        var routing = new ReplicaRoutingDataSource(primaryDataSource, replicas, readYourWrites,
+                properties.getRouting().getMaxLag(), meterRegistry);
+        taskScheduler.scheduleWithFixedDelay(routing::checkReplicas, properties.getRouting().getHealthCheckInterval());
+        return routing;
+    }
+
+    // Соединение берётся при первом запросе, а не в begin: к этому моменту readOnly транзакции уже известен
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    private static HikariDataSource replicaPool(String name, ReplicaProperties.Replica replica, HikariDataSource primary,
+                                                MeterRegistry meterRegistry) {
+        var dataSource = new HikariDataSource();
+        dataSource.setPoolName(name);
+        dataSource.setJdbcUrl(replica.getUrl());
+        dataSource.setUsername(replica.getUsername() != null ? replica.getUsername() : primary.getUsername());
+        dataSource.setPassword(replica.getPassword() != null ? replica.getPassword() : primary.getPassword());
+        dataSource.setMaximumPoolSize(replica.getMaximumPoolSize());
+        dataSource.setConnectionTimeout(primary.getConnectionTimeout());
+        dataSource.setReadOnly(true);
+        // Реплика может быть недоступна на старте: пул поднимется, а проверка здоровья выведет её из ротации
+        dataSource.setInitializationFailTimeout(-1);
+        dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return dataSource;
+    }
+}
@@ -1,6 +1,14 @@
 package com.datepeice.emonotes.config;
 
+import com.datepeice.emonotes.security.BoundedPasswordEncoder;
 import com.datepeice.emonotes.security.JwtRequestFilter;
+import com.datepeice.emonotes.security.ratelimit.AuthRateLimitFilter;
+import com.datepeice.emonotes.security.ratelimit.RateLimitProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -11,21 +19,32 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 @Configuration
 @EnableWebSecurity
+@EnableConfigurationProperties(RateLimitProperties.class)
 public class SecurityConfig {
-    SecurityConfig(JwtRequestFilter jwtRequestFilter) {
+    SecurityConfig(JwtRequestFilter jwtRequestFilter, AuthRateLimitFilter authRateLimitFilter) {
         this.jwtRequestFilter = jwtRequestFilter;
+        this.authRateLimitFilter = authRateLimitFilter;
     }
 
     private final JwtRequestFilter jwtRequestFilter;
+    private final AuthRateLimitFilter authRateLimitFilter;
 
     @Bean
-    public BCryptPasswordEncoder bCryptPasswordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+            @Value("${emonotes.password-hashing.threads:0}") int threads,
+            @Value("${emonotes.password-hashing.queue-capacity:64}") int queueCapacity,
+            @Value("${emonotes.password-hashing.max-wait-ms:5000}") long maxWaitMillis,
+            @Value("${emonotes.password-hashing.retry-after-seconds:2}") long retryAfterSeconds,
+            MeterRegistry meterRegistry) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(), poolSize, queueCapacity,
+                maxWaitMillis, retryAfterSeconds, meterRegistry);
     }
 
     @Bean
@@ -34,10 +53,15 @@ public class SecurityConfig {
                 .csrf(csrf -> csrf.disable())
                 .sessionManagement(sessionManagement -> sessionManagement.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests((authz) -> authz
+                        // Повторные ASYNC-диспатчи (экспорт, SSE) уже прошли авторизацию в исходном запросе
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
                         .requestMatchers("/api/auth/**").permitAll()
+                        // Actuator слушает только management-порт внутри сети compose; без входа - лишь health и prometheus
+                        .requestMatchers(EndpointRequest.to("health", "prometheus")).permitAll()
                         .anyRequest().authenticated()
                 )
                 .httpBasic(Customizer.withDefaults())
+                .addFilterBefore(authRateLimitFilter, UsernamePasswordAuthenticationFilter.class)
                 .addFilterBefore(jwtRequestFilter, UsernamePasswordAuthenticationFilter.class);
         return http.build();
     }
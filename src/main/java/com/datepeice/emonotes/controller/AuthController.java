@@ -1,10 +1,12 @@
 package com.datepeice.emonotes.controller;
 
+import com.datepeice.emonotes.datasource.ReadYourWrites;
 import com.datepeice.emonotes.dto.SignUpBody;
 import com.datepeice.emonotes.entity.User;
 import com.datepeice.emonotes.exception.ResourceNotFoundException;
 import com.datepeice.emonotes.repository.UserRepository;
 import com.datepeice.emonotes.security.JwtCore;
+import com.datepeice.emonotes.service.CustomUserDetailsService;
 import com.datepeice.emonotes.service.MfaService;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
@@ -13,7 +15,7 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -27,22 +29,28 @@ public class AuthController {
     AuthController(
         AuthenticationManager authenticationManager,
         UserRepository userRepository,
-        BCryptPasswordEncoder bCryptPasswordEncoder,
+        PasswordEncoder passwordEncoder,
         JwtCore jwtCore,
-        MfaService mfaService
+        MfaService mfaService,
+        CustomUserDetailsService userDetailsService,
+        ReadYourWrites readYourWrites
     ){
         this.authenticationManager = authenticationManager;
         this.userRepository = userRepository;
-        this.bCryptPasswordEncoder = bCryptPasswordEncoder;
+        this.passwordEncoder = passwordEncoder;
         this.jwtCore = jwtCore;
         this.mfaService = mfaService;
+        this.userDetailsService = userDetailsService;
+        this.readYourWrites = readYourWrites;
     }
 
     private final AuthenticationManager authenticationManager;
     private final UserRepository userRepository;
-    private final BCryptPasswordEncoder bCryptPasswordEncoder;
+    private final PasswordEncoder passwordEncoder;
     private final JwtCore jwtCore;
     private final MfaService mfaService;
+    private final CustomUserDetailsService userDetailsService;
+    private final ReadYourWrites readYourWrites;
 
     @PostMapping("/signup")
     public ResponseEntity<?> signup(@Valid @RequestBody SignUpBody body) {
@@ -72,11 +80,13 @@ public class AuthController {
 
         User user = new User();
         user.setUsername(username);
-        user.setPassword(bCryptPasswordEncoder.encode(password));
+        user.setPassword(passwordEncoder.encode(password));
         user.setMfaSecret(secret);
         user.setRoles("ROLE_USER");
 
         userRepository.save(user);
+        // Вход сразу после регистрации не должен прочитать реплику, куда пользователь ещё не доехал
+        readYourWrites.markWrite(username);
 
         return ResponseEntity.ok("User registered successfully");
     }
@@ -113,8 +123,10 @@ public class AuthController {
             return ResponseEntity.status(400).body("New password too short");
         }
 
-        user.setPassword(bCryptPasswordEncoder.encode(newPassword));
+        user.setPassword(passwordEncoder.encode(newPassword));
         userRepository.save(user);
+        readYourWrites.markWrite(username);
+        userDetailsService.evictPrincipal(username);
 
         return ResponseEntity.ok(Map.of("message", "Password reset successful"));
     }
@@ -122,7 +134,10 @@ public class AuthController {
     @PostMapping("/refresh-mfa")
     public ResponseEntity<?> refreshMfa(@AuthenticationPrincipal User user, @RequestBody String currentMfaCode) {
         int code = Integer.parseInt(currentMfaCode);
-        if (!mfaService.verifyCode(user.getMfaSecret(), code)) {
+        // Секрет читаем из базы, а не из principal: у кэшированного principal его нет
+        User current = userRepository.findById(user.getId())
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        if (!mfaService.verifyCode(current.getMfaSecret(), code)) {
             return ResponseEntity.status(403).body("Invalid current MFA code");
         }
 
@@ -141,8 +156,9 @@ public class AuthController {
         int verificationCode = Integer.parseInt(payload.get("code"));
 
         if (mfaService.verifyCode(newSecret, verificationCode)) {
-            user.setMfaSecret(newSecret);
-            userRepository.save(user);
+            userRepository.updateMfaSecret(user.getId(), newSecret);
+            readYourWrites.markWrite(user.getUsername());
+            userDetailsService.evictPrincipal(user.getUsername());
             return ResponseEntity.ok("MFA successfully updated");
         } else {
             return ResponseEntity.status(400).body("Verification failed. Try scanning again.");
@@ -0,0 +1,47 @@
+package com.datepeice.emonotes.controller;
+
+import com.datepeice.emonotes.dto.MoodDay;
+import com.datepeice.emonotes.dto.NoteCursor;
+import com.datepeice.emonotes.dto.NoteEmotionPage;
+import com.datepeice.emonotes.entity.User;
+import com.datepeice.emonotes.service.MoodService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/mood")
+public class MoodController {
+    public MoodController(MoodService moodService) {
+        this.moodService = moodService;
+    }
+    private final MoodService moodService;
+
+    private static final int DEFAULT_HISTORY_DAYS = 30;
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 100;
+
+    @GetMapping("/history")
+    public List<MoodDay> history(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                 @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                 @AuthenticationPrincipal User user) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(DEFAULT_HISTORY_DAYS - 1);
+        return moodService.history(user, start, end);
+    }
+
+    @GetMapping("/notes")
+    public NoteEmotionPage notesByEmotion(@RequestParam String emotion,
+                                          @RequestParam(required = false) String cursor,
+                                          @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit,
+                                          @AuthenticationPrincipal User user) {
+        NoteCursor before = cursor != null ? NoteCursor.decode(cursor) : null;
+        return moodService.notesByEmotion(user, emotion, before, Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
+    }
+}
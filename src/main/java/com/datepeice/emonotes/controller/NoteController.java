@@ -1,84 +1,212 @@
 package com.datepeice.emonotes.controller;
 
+import com.datepeice.emonotes.cache.NoteCache;
+import com.datepeice.emonotes.dto.NoteBatchRequest;
+import com.datepeice.emonotes.dto.NoteBatchResult;
 import com.datepeice.emonotes.dto.NoteBody;
+import com.datepeice.emonotes.dto.NoteChanges;
+import com.datepeice.emonotes.dto.NoteCursor;
+import com.datepeice.emonotes.dto.NoteListing;
+import com.datepeice.emonotes.dto.NoteImportResult;
+import com.datepeice.emonotes.dto.NotePage;
+import com.datepeice.emonotes.dto.NotePatch;
 import com.datepeice.emonotes.dto.NotePreview;
+import com.datepeice.emonotes.dto.NoteResponse;
+import com.datepeice.emonotes.dto.NoteSyncToken;
 import com.datepeice.emonotes.entity.Note;
 import com.datepeice.emonotes.entity.User;
-import com.datepeice.emonotes.exception.AccessDeniedException;
-import com.datepeice.emonotes.exception.ResourceNotFoundException;
-import com.datepeice.emonotes.repository.NoteRepository;
+import com.datepeice.emonotes.events.NoteEventStream;
+import com.datepeice.emonotes.exception.BadRequestException;
+import com.datepeice.emonotes.search.NoteSearchIndex;
+import com.datepeice.emonotes.service.NoteService;
+import com.datepeice.emonotes.service.NoteTransferService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/notes")
 public class NoteController {
-    public NoteController(NoteRepository noteRepository) {
-        this.noteRepository = noteRepository;
+    public NoteController(NoteCache noteCache, NoteSearchIndex noteSearchIndex, NoteService noteService,
+                          NoteTransferService noteTransferService, NoteEventStream noteEventStream) {
+        this.noteCache = noteCache;
+        this.noteSearchIndex = noteSearchIndex;
+        this.noteService = noteService;
+        this.noteTransferService = noteTransferService;
+        this.noteEventStream = noteEventStream;
     }
-    private final NoteRepository noteRepository;
+    private final NoteCache noteCache;
+    private final NoteSearchIndex noteSearchIndex;
+    private final NoteService noteService;
+    private final NoteTransferService noteTransferService;
+    private final NoteEventStream noteEventStream;
+
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_SEARCH_RESULTS = 50;
+    private static final int MAX_BATCH_OPERATIONS = 5000;
+    private static final int MAX_CHANGES = 500;
+    private static final String NDJSON = "application/x-ndjson";
+    // Браузер хранит ответ, но перед использованием всегда переспрашивает сервер с If-None-Match
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
 
     @PostMapping("/create")
-    public ResponseEntity<Note> createNote(@RequestBody NoteBody noteBody, @AuthenticationPrincipal User user) {
-        var note = new Note();
-        note.setTitle(noteBody.getTitle());
-        note.setContent(noteBody.getContent());
-        note.setUser(user);
-        Note savedNote = noteRepository.save(note);
-        return ResponseEntity.ok(savedNote);
+    public ResponseEntity<NoteResponse> createNote(@RequestBody NoteBody noteBody, @AuthenticationPrincipal User user) {
+        Note savedNote = noteService.create(noteBody, user);
+        return ResponseEntity.ok()
+                .eTag(NoteETags.forVersion(savedNote.getVersion()))
+                .body(NoteResponse.of(savedNote));
+    }
+
+    @PostMapping("/batch")
+    public NoteBatchResult batch(@RequestBody NoteBatchRequest request, @AuthenticationPrincipal User user) {
+        int operations = request.getCreate().size() + request.getUpdate().size() + request.getDelete().size();
+        if (operations == 0 || operations > MAX_BATCH_OPERATIONS) {
+            throw new BadRequestException("A batch must contain between 1 and " + MAX_BATCH_OPERATIONS + " operations");
+        }
+        return noteService.batch(request, user);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportNotes(@AuthenticationPrincipal User user) {
+        Long userId = user.getId();
+        StreamingResponseBody body = output -> noteTransferService.exportNdjson(userId, output);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"emonotes-export.ndjson\"")
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .body(body);
+    }
+
+    @PostMapping(value = "/import", consumes = {NDJSON, MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public NoteImportResult importNotes(HttpServletRequest request, @AuthenticationPrincipal User user) throws IOException {
+        return new NoteImportResult(noteTransferService.importNdjson(request.getInputStream(), user));
+    }
+
+    // Лента изменений: id события = ревизия заметок пользователя, Last-Event-ID продолжает с пропущенного
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> events(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+                                             @AuthenticationPrincipal User user) {
+        Long resumeFrom = null;
+        if (lastEventId != null && !lastEventId.isBlank()) {
+            try {
+                resumeFrom = Long.parseLong(lastEventId.trim());
+            } catch (NumberFormatException e) {
+                throw new BadRequestException("Invalid Last-Event-ID");
+            }
+        }
+        SseEmitter emitter = noteEventStream.subscribe(user.getId(), resumeFrom, noteService.notesRevision(user));
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .header("X-Accel-Buffering", "no")
+                .body(emitter);
     }
 
     @GetMapping("/all")
-    public List<NotePreview> getAllNotes(@AuthenticationPrincipal User user) {
-        return noteRepository.findAllByUser(user).stream()
-                .map(note -> new NotePreview    (
-                        note.getId(),
-                        note.getTitle(),
-                        truncateContent(note.getContent(), 200),
-                        note.getCreatedAt()
-                ))
-                .collect(Collectors.toList());
+    public ResponseEntity<NotePage> getAllNotes(@RequestParam(required = false) String cursor,
+                                                @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit,
+                                                @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch,
+                                                @AuthenticationPrincipal User user) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        var after = cursor == null || cursor.isBlank() ? null : NoteCursor.decode(cursor);
+        // Берём на одну запись больше, чтобы понять, есть ли следующая страница
+        NoteListing listing = noteService.listing(user, after, pageSize + 1,
+                current -> NoteETags.matches(ifNoneMatch, NoteETags.forList(user.getId(), current)));
+        long revision = listing.getRevision();
+        if (listing.getPreviews() == null) {
+            return notModified(NoteETags.forList(user.getId(), revision));
+        }
+        List<NotePreview> previews = listing.getPreviews();
+
+        String syncToken = after == null ? NoteSyncToken.at(revision).encode() : null;
+        NotePage page = previews.size() <= pageSize
+                ? new NotePage(previews, null, syncToken)
+                : new NotePage(previews.subList(0, pageSize), NoteCursor.of(previews.get(pageSize - 1)).encode(), syncToken);
+        return ResponseEntity.ok()
+                .cacheControl(REVALIDATE)
+                .varyBy(HttpHeaders.ACCEPT)
+                .eTag(NoteETags.forList(user.getId(), revision))
+                .body(page);
+    }
+
+    // Дельта-синхронизация: только заметки, изменённые или удалённые после токена
+    @GetMapping("/changes")
+    public NoteChanges changes(@RequestParam String since,
+                               @RequestParam(defaultValue = "" + MAX_CHANGES) int limit,
+                               @AuthenticationPrincipal User user) {
+        return noteService.changes(user, NoteSyncToken.decode(since), Math.max(1, Math.min(limit, MAX_CHANGES)));
     }
 
-    private String truncateContent(String content, int maxLength) {
-        if (content == null || content.length() <= maxLength) {
-            return content;
+    @GetMapping("/search")
+    public List<NotePreview> searchNotes(@RequestParam("q") String query,
+                                         @RequestParam(defaultValue = "20") int limit,
+                                         @AuthenticationPrincipal User user) {
+        if (query.isBlank()) {
+            throw new BadRequestException("Search query cannot be empty");
         }
-        return content.substring(0, maxLength) + "...";
+        return noteSearchIndex.search(user.getId(), query, Math.max(1, Math.min(limit, MAX_SEARCH_RESULTS)));
     }
 
     @GetMapping("/get/{id}")
-    public ResponseEntity<Note> getNoteById(@PathVariable Long id, @AuthenticationPrincipal User user) {
-        return noteRepository.findById(id)
-                .filter(note -> note.getUser().getId().equals(user.getId())) // Проверка владельца
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.status(403).build());
+    public ResponseEntity<NoteResponse> getNoteById(@PathVariable Long id,
+                                                    @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch,
+                                                    @AuthenticationPrincipal User user) {
+        long revision = noteService.notesRevision(user);
+        // 304 только для существующей заметки этого пользователя, и только если тег совпал целиком
+        var cached = noteCache.get(id)
+                .filter(entry -> entry.userId().equals(user.getId())) // Проверка владельца и для записей из кэша
+                .orElse(null);
+        if (cached == null) {
+            return ResponseEntity.status(403).build();
+        }
+        String eTag = NoteETags.forNote(user.getId(), id, revision, cached.note().getVersion());
+        if (NoteETags.matches(ifNoneMatch, eTag)) {
+            return notModified(eTag);
+        }
+        return ResponseEntity.ok()
+                .cacheControl(REVALIDATE)
+                .varyBy(HttpHeaders.ACCEPT)
+                .eTag(eTag)
+                .body(cached.note());
     }
 
     @PutMapping("/update/{id}")
-    public ResponseEntity updateNote(@PathVariable Long id, @RequestBody NoteBody noteBody, @AuthenticationPrincipal User user) throws Exception {
-        var note = noteRepository.findById(id).orElseThrow(() -> new ResourceNotFoundException("Note not found"));
-        if (!note.getUser().getId().equals(user.getId())) {
-            throw new AccessDeniedException("You are not authorized to update this note");
-        }
-        note.setTitle(noteBody.getTitle());
-        note.setContent(noteBody.getContent());
+    public ResponseEntity<Void> updateNote(@PathVariable Long id, @RequestBody NoteBody noteBody,
+                                           @RequestHeader(value = "If-Match", required = false) String ifMatch,
+                                           @AuthenticationPrincipal User user) {
+        Note note = noteService.update(id, noteBody, NoteETags.requireVersion(ifMatch), user);
+        return ResponseEntity.noContent().eTag(NoteETags.forVersion(note.getVersion())).build();
+    }
 
-        noteRepository.save(note);
-        return ResponseEntity.noContent().build();
+    // Автосохранение: только изменённые поля или правки относительно известной версии
+    @PatchMapping("/update/{id}")
+    public ResponseEntity<Void> patchNote(@PathVariable Long id, @RequestBody NotePatch patch,
+                                          @RequestHeader(value = "If-Match", required = false) String ifMatch,
+                                          @AuthenticationPrincipal User user) {
+        Note note = noteService.patch(id, patch, NoteETags.parseVersion(ifMatch), user);
+        return ResponseEntity.noContent().eTag(NoteETags.forVersion(note.getVersion())).build();
     }
 
     @DeleteMapping("/delete/{id}")
-    public void deleteNote(@PathVariable Long id, @AuthenticationPrincipal User user) throws Exception {
-        var note = noteRepository.findById(id).orElseThrow(() -> new ResourceNotFoundException("Note not found"));
-        if (!note.getUser().getId().equals(user.getId())) {
-            throw new AccessDeniedException("You are not authorized to delete this note");
-        }
-        noteRepository.delete(note);
+    public void deleteNote(@PathVariable Long id, @AuthenticationPrincipal User user) {
+        noteService.delete(id, user);
+    }
+
+    private static <T> ResponseEntity<T> notModified(String eTag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .cacheControl(REVALIDATE)
+                .varyBy(HttpHeaders.ACCEPT)
+                .eTag(eTag)
+                .build();
     }
 
 }
@@ -0,0 +1,86 @@
+package com.datepeice.emonotes.controller;
+
+import com.datepeice.emonotes.exception.BadRequestException;
+import com.datepeice.emonotes.exception.PreconditionRequiredException;
+
+// Список: "u<userId>-r<revision>"; заметка: "u<userId>-n<noteId>-r<revision>-v<version>", где revision - счётчик
+// изменений заметок пользователя, а version - @Version заметки. userId не даёт отдать 304 на кэш другого аккаунта
+// в том же браузере, noteId - на тег списка или соседней заметки. Ответы на запись отдают "v<version>",
+// этого хватает для If-Match
+final class NoteETags {
+    private NoteETags() {
+    }
+
+    static String forList(long userId, long revision) {
+        return "\"u" + userId + "-r" + revision + "\"";
+    }
+
+    static String forNote(long userId, long noteId, long revision, long version) {
+        return "\"u" + userId + "-n" + noteId + "-r" + revision + "-v" + version + "\"";
+    }
+
+    static String forVersion(long version) {
+        return "\"v" + version + "\"";
+    }
+
+    // null, если заголовка нет или он "*" (любая текущая версия); значение без версии - 400, а не запись вслепую
+    static Long parseVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String part = component(ifMatch, 'v');
+        long version = part == null ? -1L : parseLong(part);
+        if (version < 0) {
+            throw new BadRequestException("If-Match must be an ETag returned by this API");
+        }
+        return version;
+    }
+
+    // Для полной замены заметки If-Match обязателен: без него старая копия молча затёрла бы чужие правки.
+    // "*" - явный отказ от проверки версии, тогда null
+    static Long requireVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank()) {
+            throw new PreconditionRequiredException("If-Match is required: send the note's ETag, or * to overwrite");
+        }
+        return parseVersion(ifMatch);
+    }
+
+    // If-None-Match может быть списком тегов через запятую; сравниваем целиком с текущим тегом ресурса,
+    // слабое сравнение (W/ не учитывается), как требует RFC 9110 для If-None-Match
+    static boolean matches(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals("*") || value.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String component(String header, char prefix) {
+        String value = header.trim();
+        if (value.startsWith("W/")) {
+            value = value.substring(2);
+        }
+        for (String part : value.replace("\"", "").split("-")) {
+            if (part.length() > 1 && part.charAt(0) == prefix) {
+                return part.substring(1);
+            }
+        }
+        return null;
+    }
+
+    private static long parseLong(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.datepeice.emonotes.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+// Пользователи, писавшие недавно: их чтения маршрутизатор оставляет на primary.
+// Плюс явная просьба читать с primary для текущего потока, без отметки пользователя как писавшего
+@Component
+public class ReadYourWrites {
+    public ReadYourWrites(@Value("${emonotes.datasource.routing.sticky-window:10s}") Duration stickyWindow) {
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(stickyWindow)
+                .maximumSize(100_000)
+                .build();
+    }
+
+    private static final ThreadLocal<String> SUBJECT = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> PRIMARY = new ThreadLocal<>();
+
+    private final Cache<String, Boolean> recentWriters;
+
+    public void markWrite(String username) {
+        if (username != null) {
+            recentWriters.put(username, Boolean.TRUE);
+        }
+    }
+
+    public boolean isSticky(String username) {
+        return username != null && recentWriters.getIfPresent(username) != null;
+    }
+
+    // Для кода, который работает до аутентификации (загрузка principal), явно указываем, чьи это чтения
+    public <T> T withSubject(String username, Supplier<T> action) {
+        String previous = SUBJECT.get();
+        SUBJECT.set(username);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                SUBJECT.remove();
+            } else {
+                SUBJECT.set(previous);
+            }
+        }
+    }
+
+    // Чтения внутри action идут на primary даже в readOnly-транзакции; sticky-окно пользователя не трогается
+    public <T> T onPrimary(Supplier<T> action) {
+        if (PRIMARY.get() != null) {
+            return action.get();
+        }
+        PRIMARY.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            PRIMARY.remove();
+        }
+    }
+
+    public boolean primaryRequested() {
+        return PRIMARY.get() != null;
+    }
+
+    public String currentSubject() {
+        String subject = SUBJECT.get();
+        if (subject != null) {
+            return subject;
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated() ? authentication.getName() : null;
+    }
+}
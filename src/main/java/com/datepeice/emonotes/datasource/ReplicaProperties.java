@@ -0,0 +1,44 @@
+package com.datepeice.emonotes.datasource;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.AssertTrue;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Validated
+@ConfigurationProperties(prefix = "emonotes.datasource")
+public class ReplicaProperties {
+    @Valid
+    private Routing routing = new Routing();
+    private List<Replica> replicas = new ArrayList<>();
+
+    @Data
+    public static class Routing {
+        private boolean enabled;
+        // После записи чтения пользователя идут на primary это время, чтобы не увидеть отставшую реплику
+        private Duration stickyWindow = Duration.ofSeconds(10);
+        private Duration healthCheckInterval = Duration.ofSeconds(10);
+        // Реплика с отставанием больше этого выводится из ротации до следующей проверки
+        private Duration maxLag = Duration.ofSeconds(10);
+
+        // Реплика в ротации может отставать на maxLag: окно короче - и пользователь прочитает свою старую запись
+        @AssertTrue(message = "sticky-window must not be shorter than max-lag")
+        public boolean isStickyWindowCoveringMaxLag() {
+            return stickyWindow.compareTo(maxLag) >= 0;
+        }
+    }
+
+    @Data
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+    }
+}
@@ -0,0 +1,161 @@
+package com.datepeice.emonotes.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// readOnly-транзакции идут на здоровую реплику (по кругу), всё остальное - на primary.
+// Работает только за LazyConnectionDataSourceProxy: флаг readOnly выставляется после begin, до первого запроса
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, ReadYourWrites readYourWrites,
+                                    Duration maxLag, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.readYourWrites = readYourWrites;
+        this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            var replica = new Replica("replica-" + i, replicas.get(i));
+            this.replicas.add(replica);
+            targets.put(replica.name, replica.dataSource);
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        this.primaryReads = meterRegistry.counter("emonotes.datasource.reads", "target", "primary");
+        this.replicaReads = meterRegistry.counter("emonotes.datasource.reads", "target", "replica");
+        this.fallbacks = meterRegistry.counter("emonotes.datasource.replica.fallbacks");
+    }
+
+    static final String PRIMARY = "primary";
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    // Отставание считаем только когда реплика действительно догоняет WAL, иначе простой primary выглядел бы как лаг
+    private static final String LAG_QUERY = "SELECT CASE WHEN pg_is_in_recovery() " +
+            "AND pg_last_wal_receive_lsn() IS DISTINCT FROM pg_last_wal_replay_lsn() " +
+            "THEN COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) ELSE 0 END";
+
+    private final DataSource primary;
+    private final ReadYourWrites readYourWrites;
+    private final double maxLagSeconds;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final AtomicInteger next = new AtomicInteger();
+    private final Counter primaryReads;
+    private final Counter replicaReads;
+    private final Counter fallbacks;
+
+    private static class Replica {
+        Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy = true;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Replica replica = chooseReplica();
+        return replica != null ? replica.name : PRIMARY;
+    }
+
+    // Отказ реплики при выдаче соединения не должен ронять запрос: выводим её из ротации и идём на primary
+    @Override
+    public Connection getConnection() throws SQLException {
+        Replica replica = chooseReplica();
+        if (replica == null) {
+            return primary.getConnection();
+        }
+        try {
+            return replica.dataSource.getConnection();
+        } catch (SQLException e) {
+            markDown(replica, e.getMessage());
+            fallbacks.increment();
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return getConnection();
+    }
+
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet lag = statement.executeQuery(LAG_QUERY)) {
+                lag.next();
+                double lagSeconds = lag.getDouble(1);
+                if (lagSeconds > maxLagSeconds) {
+                    markDown(replica, "replication lag " + lagSeconds + "s");
+                } else if (!replica.healthy) {
+                    replica.healthy = true;
+                    log.info("Replica {} is back in rotation", replica.name);
+                }
+            } catch (SQLException e) {
+                markDown(replica, e.getMessage());
+            }
+        }
+    }
+
+    // Пулы реплик принадлежат маршрутизатору; primary закрывается своим бином
+    @Override
+    public void close() throws Exception {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private Replica chooseReplica() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return null;
+        }
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            // Пишущая транзакция: запоминаем автора, его следующие чтения пойдут на primary
+            readYourWrites.markWrite(readYourWrites.currentSubject());
+            return null;
+        }
+        if (readYourWrites.primaryRequested() || readYourWrites.isSticky(readYourWrites.currentSubject())) {
+            primaryReads.increment();
+            return null;
+        }
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.healthy) {
+                replicaReads.increment();
+                return replica;
+            }
+        }
+        primaryReads.increment();
+        return null;
+    }
+
+    private void markDown(Replica replica, String reason) {
+        if (replica.healthy) {
+            replica.healthy = false;
+            log.warn("Replica {} removed from rotation: {}", replica.name, reason);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.datepeice.emonotes.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+public class MoodDay {
+    private LocalDate day;
+    private int noteCount;
+    private double averageValence;
+    private String dominantEmotion;
+    private Map<String, Integer> emotions; // сколько заметок дня с этой эмоцией
+}
@@ -0,0 +1,34 @@
+package com.datepeice.emonotes.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class NoteBatchRequest {
+    private List<NoteBody> create = new ArrayList<>();
+    private List<Update> update = new ArrayList<>();
+    private List<Long> delete = new ArrayList<>();
+
+    // "create": null в JSON перезаписал бы значение по умолчанию - оставляем пустой список
+    public void setCreate(List<NoteBody> create) {
+        this.create = create != null ? create : new ArrayList<>();
+    }
+
+    public void setUpdate(List<Update> update) {
+        this.update = update != null ? update : new ArrayList<>();
+    }
+
+    public void setDelete(List<Long> delete) {
+        this.delete = delete != null ? delete : new ArrayList<>();
+    }
+
+    @Data
+    public static class Update {
+        private Long id;
+        private String title;
+        private String content;
+        private Long version; // null - без проверки версии
+    }
+}
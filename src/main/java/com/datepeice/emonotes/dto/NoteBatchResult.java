@@ -0,0 +1,14 @@
+package com.datepeice.emonotes.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class NoteBatchResult {
+    private List<Long> created; // id в порядке элементов create
+    private int updated;
+    private int deleted;
+}
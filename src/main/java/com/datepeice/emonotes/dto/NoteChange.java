@@ -0,0 +1,38 @@
+package com.datepeice.emonotes.dto;
+
+import com.datepeice.emonotes.entity.Note;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// Событие ленты /api/notes/events: поля превью совпадают с NotePreview, чтобы клиент патчил список на месте
+@Data
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class NoteChange {
+    public static final String CREATED = "created";
+    public static final String UPDATED = "updated";
+    public static final String DELETED = "deleted";
+    public static final String RESET = "reset"; // изменений слишком много или история потеряна - перечитать список
+
+    private String type;
+    private Long id;
+    private String title;
+    private String previewContent;
+    private LocalDateTime createdAt;
+    private Long version;
+
+    public static NoteChange of(String type, Note note) {
+        return new NoteChange(type, note.getId(), note.getTitle(), note.getPreview(), note.getCreatedAt(), note.getVersion());
+    }
+
+    public static NoteChange deleted(Long id) {
+        return new NoteChange(DELETED, id, null, null, null, null);
+    }
+
+    public static NoteChange reset() {
+        return new NoteChange(RESET, null, null, null, null, null);
+    }
+}
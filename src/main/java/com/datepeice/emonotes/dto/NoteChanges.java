@@ -0,0 +1,15 @@
+package com.datepeice.emonotes.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class NoteChanges {
+    private List<NoteChange> changes; // updated - создана или изменена, deleted - надгробие
+    private String nextToken;
+    private boolean hasMore;
+    private boolean reset; // токен устарел: перечитать /all и взять syncToken оттуда
+}
@@ -0,0 +1,13 @@
+package com.datepeice.emonotes.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class NoteEmotionPage {
+    private List<NoteEmotionView> notes;
+    private String nextCursor;
+}
@@ -0,0 +1,18 @@
+package com.datepeice.emonotes.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+// Строка note_emotions: без заголовка и текста, клиент сопоставляет по id со своим списком
+@Data
+@AllArgsConstructor
+public class NoteEmotionView {
+    private Long id;
+    private LocalDateTime createdAt;
+    private String emotion;
+    private double valence;
+    private Map<String, Double> scores;
+}
@@ -0,0 +1,17 @@
+package com.datepeice.emonotes.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Одна строка NDJSON в экспорте и импорте заметок
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NoteExport {
+    private String title;
+    private String content;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,13 @@
+package com.datepeice.emonotes.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class NoteListing {
+    private long revision;
+    private List<NotePreview> previews; // null, если у клиента уже список этой ревизии
+}
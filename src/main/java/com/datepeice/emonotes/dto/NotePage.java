@@ -0,0 +1,14 @@
+package com.datepeice.emonotes.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class NotePage {
+    private List<NotePreview> notes;
+    private String nextCursor; // null, если это последняя страница
+    private String syncToken; // только на первой странице: с него /changes продолжит после полной загрузки
+}
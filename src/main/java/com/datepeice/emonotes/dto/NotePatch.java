@@ -0,0 +1,21 @@
+package com.datepeice.emonotes.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class NotePatch {
+    private String title;   // null - не менять
+    private String content; // полная замена контента, null - не менять
+    // Правки применяются по порядку к контенту версии baseVersion (или версии из If-Match)
+    private List<TextEdit> contentEdits;
+    private Long baseVersion;
+
+    @Data
+    public static class TextEdit {
+        private int offset;
+        private int deleteCount;
+        private String insert;
+    }
+}
@@ -0,0 +1,24 @@
+package com.datepeice.emonotes.dto;
+
+import com.datepeice.emonotes.entity.Note;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// Полная заметка в ответах API; те же поля, что раньше отдавала сущность Note
+@Data
+@AllArgsConstructor
+public class NoteResponse {
+    private Long id;
+    private String title;
+    private String content;
+    private long version;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    public static NoteResponse of(Note note) {
+        return new NoteResponse(note.getId(), note.getTitle(), note.getContent(), note.getVersion(),
+                note.getCreatedAt(), note.getUpdatedAt());
+    }
+}
@@ -0,0 +1,38 @@
+package com.datepeice.emonotes.dto;
+
+import com.datepeice.emonotes.exception.BadRequestException;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Позиция в истории изменений заметок: ревизия пользователя и, внутри ревизии, последний отданный id
+@Data
+@AllArgsConstructor
+public class NoteSyncToken {
+    private long revision;
+    private Long afterId; // null - ревизия прочитана целиком
+
+    public static NoteSyncToken at(long revision) {
+        return new NoteSyncToken(revision, null);
+    }
+
+    public String encode() {
+        String raw = afterId == null ? String.valueOf(revision) : revision + "|" + afterId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static NoteSyncToken decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            if (separator < 0) {
+                return at(Long.parseLong(raw));
+            }
+            return new NoteSyncToken(Long.parseLong(raw.substring(0, separator)), Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid sync token");
+        }
+    }
+}
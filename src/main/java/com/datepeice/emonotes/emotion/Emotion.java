@@ -0,0 +1,32 @@
+package com.datepeice.emonotes.emotion;
+
+import java.util.Locale;
+
+// valence - вклад эмоции в общее настроение заметки, от -1 до 1
+public enum Emotion {
+    JOY(1.0),
+    CALM(0.5),
+    SURPRISE(0.1),
+    SADNESS(-0.8),
+    FEAR(-0.7),
+    ANGER(-0.9),
+    NEUTRAL(0.0);
+
+    Emotion(double valence) {
+        this.valence = valence;
+    }
+
+    private final double valence;
+
+    public double valence() {
+        return valence;
+    }
+
+    public String label() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    public static Emotion fromLabel(String label) {
+        return valueOf(label.trim().toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,7 @@
+package com.datepeice.emonotes.emotion;
+
+// Локальный анализатор без сетевых вызовов: вызывается на пуле воркеров EmotionTaggingPipeline.
+// Другая реализация подключается бином с emonotes.emotion.analyzer != lexicon
+public interface EmotionAnalyzer {
+    EmotionScore analyze(String plainText);
+}
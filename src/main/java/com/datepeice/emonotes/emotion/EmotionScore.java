@@ -0,0 +1,8 @@
+package com.datepeice.emonotes.emotion;
+
+import java.util.Map;
+
+// scores - доля каждой найденной эмоции, в сумме 1; пустая карта для NEUTRAL
+public record EmotionScore(Emotion dominant, double valence, Map<Emotion, Double> scores) {
+    public static final EmotionScore NEUTRAL = new EmotionScore(Emotion.NEUTRAL, 0.0, Map.of());
+}
@@ -0,0 +1,198 @@
+package com.datepeice.emonotes.emotion;
+
+import com.datepeice.emonotes.dto.NoteEmotionView;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// note_emotions - метки по заметке, mood_daily - счётчики по (пользователь, день заметки, эмоция).
+// Таблицы создаются миграцией, как и search_vector: Hibernate о них не знает
+@Repository
+public class EmotionStore {
+    EmotionStore(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    private static final String LOCK_NOTES =
+            "SELECT count(pg_advisory_xact_lock(id)) FROM (SELECT unnest(?::bigint[]) AS id ORDER BY 1) ids";
+    private static final String UPSERT_EMOTION = """
+            INSERT INTO note_emotions (note_id, user_id, created_at, label, valence, scores, note_version, analyzed_at)
+            VALUES (?, ?, ?, ?, ?, CAST(? AS jsonb), ?, now())
+            ON CONFLICT (note_id) DO UPDATE SET label = EXCLUDED.label, valence = EXCLUDED.valence,
+                scores = EXCLUDED.scores, note_version = EXCLUDED.note_version, analyzed_at = EXCLUDED.analyzed_at
+            """;
+    private static final String ADD_TO_ROLLUP = """
+            INSERT INTO mood_daily (user_id, day, label, note_count, valence_sum) VALUES (?, ?, ?, ?, ?)
+            ON CONFLICT (user_id, day, label) DO UPDATE SET note_count = mood_daily.note_count + EXCLUDED.note_count,
+                valence_sum = mood_daily.valence_sum + EXCLUDED.valence_sum
+            """;
+    // Живые заметки без метки или с меткой старой версии, и надгробия, с которых метку ещё не сняли
+    private static final String FIND_STALE = """
+            SELECT n.id FROM notes n LEFT JOIN note_emotions e ON e.note_id = n.id
+            WHERE (n.deleted_at IS NULL AND (e.note_id IS NULL OR e.note_version < n.version))
+               OR (n.deleted_at IS NOT NULL AND e.note_id IS NOT NULL)
+            LIMIT ?
+            """;
+
+    private static final TypeReference<Map<String, Double>> SCORES = new TypeReference<>() {
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    // score == null - заметка удалена, метку снимаем
+    public record Result(long noteId, long userId, LocalDateTime createdAt, long noteVersion, EmotionScore score) {
+    }
+
+    public record RollupRow(LocalDate day, String label, int noteCount, double valenceSum) {
+    }
+
+    private record Existing(long userId, LocalDate day, String label, double valence, long noteVersion) {
+    }
+
+    private record RollupKey(long userId, LocalDate day, String label) {
+    }
+
+    private static final Comparator<RollupKey> ROLLUP_ORDER = Comparator.comparingLong(RollupKey::userId)
+            .thenComparing(RollupKey::day)
+            .thenComparing(RollupKey::label);
+
+    // Старая метка вычитается из дневного счётчика, новая прибавляется - заметки пользователя не пересчитываются
+    @Transactional
+    public void apply(List<Result> results) {
+        if (results.isEmpty()) {
+            return;
+        }
+        Long[] ids = results.stream().map(Result::noteId).sorted().distinct().toArray(Long[]::new);
+        // Sweep работает на каждом инстансе, одна заметка может прийти в два пайплайна сразу
+        jdbcTemplate.query(con -> {
+            var statement = con.prepareStatement(LOCK_NOTES);
+            statement.setArray(1, con.createArrayOf("bigint", ids));
+            return statement;
+        }, rs -> {
+        });
+        Map<Long, Existing> existing = loadExisting(ids);
+
+        Map<RollupKey, double[]> deltas = new TreeMap<>(ROLLUP_ORDER);
+        List<Object[]> upserts = new ArrayList<>();
+        List<Object[]> deletes = new ArrayList<>();
+        for (Result result : results) {
+            Existing old = existing.get(result.noteId());
+            if (old != null && old.noteVersion() > result.noteVersion()) {
+                continue;
+            }
+            if (old != null) {
+                addDelta(deltas, new RollupKey(old.userId(), old.day(), old.label()), -1, -old.valence());
+            }
+            if (result.score() == null) {
+                if (old != null) {
+                    deletes.add(new Object[]{result.noteId()});
+                }
+                continue;
+            }
+            EmotionScore score = result.score();
+            String label = score.dominant().label();
+            upserts.add(new Object[]{result.noteId(), result.userId(), Timestamp.valueOf(result.createdAt()), label,
+                    score.valence(), toJson(score), result.noteVersion()});
+            addDelta(deltas, new RollupKey(result.userId(), result.createdAt().toLocalDate(), label), 1, score.valence());
+        }
+
+        jdbcTemplate.batchUpdate(UPSERT_EMOTION, upserts);
+        jdbcTemplate.batchUpdate("DELETE FROM note_emotions WHERE note_id = ?", deletes);
+        // Ключи отсортированы: две транзакции обновляют общие строки mood_daily в одном порядке и не дедлочатся
+        List<Object[]> rollup = new ArrayList<>();
+        deltas.forEach((key, delta) -> {
+            if (delta[0] != 0 || Math.abs(delta[1]) > 1e-9) {
+                rollup.add(new Object[]{key.userId(), key.day(), key.label(), (int) delta[0], delta[1]});
+            }
+        });
+        jdbcTemplate.batchUpdate(ADD_TO_ROLLUP, rollup);
+    }
+
+    public List<Long> findStale(int limit) {
+        return jdbcTemplate.queryForList(FIND_STALE, Long.class, limit);
+    }
+
+    public List<RollupRow> findRollup(Long userId, LocalDate from, LocalDate to) {
+        return jdbcTemplate.query(
+                "SELECT day, label, note_count, valence_sum FROM mood_daily " +
+                        "WHERE user_id = ? AND day BETWEEN ? AND ? AND note_count > 0 ORDER BY day, label",
+                (rs, i) -> new RollupRow(rs.getObject("day", LocalDate.class), rs.getString("label"),
+                        rs.getInt("note_count"), rs.getDouble("valence_sum")),
+                userId, from, to);
+    }
+
+    // Keyset по (created_at, note_id) на индексе idx_note_emotions_user_label, таблицу notes не трогает
+    public List<NoteEmotionView> findByEmotion(Long userId, String label, LocalDateTime beforeCreatedAt, Long beforeId, int limit) {
+        String sql = "SELECT note_id, created_at, label, valence, scores FROM note_emotions WHERE user_id = ? AND label = ? " +
+                (beforeId != null ? "AND (created_at, note_id) < (?, ?) " : "") +
+                "ORDER BY created_at DESC, note_id DESC LIMIT ?";
+        Object[] args = beforeId != null
+                ? new Object[]{userId, label, Timestamp.valueOf(beforeCreatedAt), beforeId, limit}
+                : new Object[]{userId, label, limit};
+        return jdbcTemplate.query(sql, (rs, i) -> new NoteEmotionView(
+                rs.getLong("note_id"),
+                rs.getTimestamp("created_at").toLocalDateTime(),
+                rs.getString("label"),
+                rs.getDouble("valence"),
+                fromJson(rs.getString("scores"))
+        ), args);
+    }
+
+    private Map<Long, Existing> loadExisting(Long[] ids) {
+        Map<Long, Existing> existing = new HashMap<>();
+        jdbcTemplate.query(con -> {
+            var statement = con.prepareStatement(
+                    "SELECT note_id, user_id, created_at, label, valence, note_version FROM note_emotions WHERE note_id = ANY (?)");
+            statement.setArray(1, con.createArrayOf("bigint", ids));
+            return statement;
+        }, rs -> {
+            existing.put(rs.getLong("note_id"), new Existing(
+                    rs.getLong("user_id"),
+                    rs.getTimestamp("created_at").toLocalDateTime().toLocalDate(),
+                    rs.getString("label"),
+                    rs.getDouble("valence"),
+                    rs.getLong("note_version")));
+        });
+        return existing;
+    }
+
+    private static void addDelta(Map<RollupKey, double[]> deltas, RollupKey key, int count, double valence) {
+        double[] delta = deltas.computeIfAbsent(key, k -> new double[2]);
+        delta[0] += count;
+        delta[1] += valence;
+    }
+
+    private String toJson(EmotionScore score) {
+        Map<String, Double> scores = new LinkedHashMap<>();
+        score.scores().forEach((emotion, share) -> scores.put(emotion.label(), Math.round(share * 1000) / 1000.0));
+        try {
+            return objectMapper.writeValueAsString(scores);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Map<String, Double> fromJson(String json) {
+        try {
+            return objectMapper.readValue(json, SCORES);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.datepeice.emonotes.emotion;
+
+import com.datepeice.emonotes.dto.NoteChange;
+import com.datepeice.emonotes.entity.Note;
+import com.datepeice.emonotes.events.NoteChangeEvent;
+import com.datepeice.emonotes.repository.NoteRepository;
+import com.datepeice.emonotes.util.MarkdownText;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Разметка эмоций вне запроса: после коммита id заметки кладётся в очередь, воркеры анализируют пачками
+// и пишут метки и дневные счётчики одной транзакцией. Очередь переполнена - id теряется, его подберёт sweep
+@Component
+@ConditionalOnProperty(name = "emonotes.emotion.enabled", havingValue = "true", matchIfMissing = true)
+public class EmotionTaggingPipeline {
+    EmotionTaggingPipeline(NoteRepository noteRepository, EmotionAnalyzer analyzer, EmotionStore store,
+                           PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                           @Value("${emonotes.emotion.workers:2}") int workers,
+                           @Value("${emonotes.emotion.queue-capacity:10000}") int queueCapacity,
+                           @Value("${emonotes.emotion.batch-size:100}") int batchSize) {
+        this.noteRepository = noteRepository;
+        this.analyzer = analyzer;
+        this.store = store;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+
+        this.queues = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            queues.add(new ArrayBlockingQueue<>(Math.max(1, queueCapacity / workers)));
+        }
+        this.dropped = meterRegistry.counter("emonotes.emotion.dropped");
+        this.failed = meterRegistry.counter("emonotes.emotion.failed");
+        this.analyzeTime = Timer.builder("emonotes.emotion.analyze")
+                .description("Time spent scoring one note")
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("emonotes.emotion.batch.size")
+                .description("Notes written per emotion batch")
+                .register(meterRegistry);
+        Gauge.builder("emonotes.emotion.queue.size", queues, q -> q.stream().mapToInt(BlockingQueue::size).sum())
+                .register(meterRegistry);
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(EmotionTaggingPipeline.class);
+
+    private final NoteRepository noteRepository;
+    private final EmotionAnalyzer analyzer;
+    private final EmotionStore store;
+    // Не read-only: чтение с реплики может вернуть заметку до только что закоммиченной правки
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    // Заметка всегда попадает в одну и ту же очередь, два воркера не размечают её одновременно
+    private final List<BlockingQueue<Long>> queues;
+    private final List<Thread> workers = new ArrayList<>();
+    private final Counter dropped;
+    private final Counter failed;
+    private final Timer analyzeTime;
+    private final DistributionSummary batchSizes;
+    private volatile boolean running = true;
+
+    private record Source(long noteId, long userId, LocalDateTime createdAt, long version, String text, boolean deleted) {
+    }
+
+    @PostConstruct
+    void start() {
+        for (int i = 0; i < queues.size(); i++) {
+            BlockingQueue<Long> queue = queues.get(i);
+            Thread worker = new Thread(() -> drain(queue), "emotion-" + (i + 1));
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        workers.forEach(Thread::interrupt);
+    }
+
+    // Синхронно в потоке запроса, но после коммита и без блокировок: только offer в очередь
+    @TransactionalEventListener
+    public void onNoteChange(NoteChangeEvent event) {
+        NoteChange change = event.change();
+        if (change.getId() != null) {
+            enqueue(change.getId());
+        }
+        // reset (batch, импорт) id не несёт - такие заметки найдёт sweep
+    }
+
+    @Scheduled(initialDelayString = "${emonotes.emotion.sweep.initial-delay-ms:30000}",
+            fixedDelayString = "${emonotes.emotion.sweep.interval-ms:60000}")
+    public void sweep() {
+        store.findStale(queues.size() * batchSize * 10).forEach(this::enqueue);
+    }
+
+    void enqueue(Long noteId) {
+        if (!queues.get(Math.floorMod(noteId.hashCode(), queues.size())).offer(noteId)) {
+            dropped.increment();
+        }
+    }
+
+    private void drain(BlockingQueue<Long> queue) {
+        List<Long> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                Long first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                process(new LinkedHashSet<>(batch));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // Пачка не записана - sweep найдёт эти заметки как неразмеченные
+                failed.increment(batch.size());
+                log.warn("Emotion tagging failed for {} notes", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void process(Set<Long> noteIds) {
+        List<Source> sources = transactionTemplate.execute(status -> {
+            Map<Long, Note> notes = noteRepository.findAllById(noteIds).stream()
+                    .collect(Collectors.toMap(Note::getId, Function.identity()));
+            return noteIds.stream()
+                    .map(notes::get)
+                    .filter(Objects::nonNull)
+                    .map(note -> new Source(note.getId(), note.getUser().getId(), note.getCreatedAt(), note.getVersion(),
+                            note.isDeleted() ? null : plainText(note), note.isDeleted()))
+                    .toList();
+        });
+        // Заметки, которых уже нет, удалены очисткой надгробий, их метки ушли каскадом
+
+        List<EmotionStore.Result> results = new ArrayList<>(sources.size());
+        for (Source source : sources) {
+            EmotionScore score = source.deleted() ? null : analyzeTime.record(() -> analyzer.analyze(source.text()));
+            results.add(new EmotionStore.Result(source.noteId(), source.userId(), source.createdAt(), source.version(), score));
+        }
+        store.apply(results);
+        batchSizes.record(results.size());
+    }
+
+    private static String plainText(Note note) {
+        String title = note.getTitle() != null ? note.getTitle() : "";
+        return title + "\n" + MarkdownText.toPlainText(note.getContent());
+    }
+}
@@ -0,0 +1,111 @@
+package com.datepeice.emonotes.emotion;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+// Словарь слово -> эмоция с весом; отрицание в двух словах перед термом переворачивает его вклад в valence.
+// "don't" токенизируется в "don" и "t", поэтому в отрицаниях усечённые формы
+@Component
+@ConditionalOnProperty(name = "emonotes.emotion.analyzer", havingValue = "lexicon", matchIfMissing = true)
+public class LexiconEmotionAnalyzer implements EmotionAnalyzer {
+    public LexiconEmotionAnalyzer() {
+        this(loadLexicon("emotion/lexicon.tsv"));
+    }
+
+    LexiconEmotionAnalyzer(Map<String, Term> lexicon) {
+        this.lexicon = lexicon;
+    }
+
+    private static final Set<String> NEGATIONS = Set.of("not", "no", "never", "don", "didn", "isn", "wasn", "не", "нет", "ни");
+    private static final int NEGATION_WINDOW = 2;
+    // Меньше этой суммы весов текст считаем нейтральным - одно "great" в длинной заметке ничего не говорит
+    private static final double MIN_WEIGHT = 0.5;
+
+    private final Map<String, Term> lexicon;
+
+    record Term(Emotion emotion, double weight) {
+    }
+
+    @Override
+    public EmotionScore analyze(String plainText) {
+        if (plainText == null || plainText.isBlank()) {
+            return EmotionScore.NEUTRAL;
+        }
+        Map<Emotion, Double> weights = new EnumMap<>(Emotion.class);
+        double total = 0;
+        double valence = 0;
+        int sinceNegation = Integer.MAX_VALUE;
+        for (String token : plainText.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (token.isEmpty()) {
+                continue;
+            }
+            if (NEGATIONS.contains(token)) {
+                sinceNegation = 0;
+                continue;
+            }
+            sinceNegation = sinceNegation == Integer.MAX_VALUE ? sinceNegation : sinceNegation + 1;
+            Term term = lexicon.get(token);
+            if (term == null) {
+                continue;
+            }
+            boolean negated = sinceNegation <= NEGATION_WINDOW;
+            // "not happy" - не радость, но и не полноценная грусть: учитываем только в valence и вполсилы
+            if (negated) {
+                valence -= term.weight() * term.emotion().valence() * 0.5;
+                total += term.weight() * 0.5;
+                continue;
+            }
+            weights.merge(term.emotion(), term.weight(), Double::sum);
+            valence += term.weight() * term.emotion().valence();
+            total += term.weight();
+        }
+        if (total < MIN_WEIGHT) {
+            return EmotionScore.NEUTRAL;
+        }
+
+        double emotionTotal = weights.values().stream().mapToDouble(Double::doubleValue).sum();
+        Map<Emotion, Double> scores = new EnumMap<>(Emotion.class);
+        Emotion dominant = Emotion.NEUTRAL;
+        double best = 0;
+        for (var entry : weights.entrySet()) {
+            double share = entry.getValue() / emotionTotal;
+            scores.put(entry.getKey(), share);
+            if (share > best) {
+                best = share;
+                dominant = entry.getKey();
+            }
+        }
+        return new EmotionScore(dominant, Math.max(-1.0, Math.min(1.0, valence / total)), scores);
+    }
+
+    static Map<String, Term> loadLexicon(String path) {
+        Map<String, Term> lexicon = new HashMap<>();
+        try (var reader = new BufferedReader(new InputStreamReader(
+                new ClassPathResource(path).getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] parts = line.split("\t");
+                lexicon.put(parts[0].toLowerCase(Locale.ROOT),
+                        new Term(Emotion.fromLabel(parts[1]), Double.parseDouble(parts[2])));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot load emotion lexicon " + path, e);
+        }
+        return Map.copyOf(lexicon);
+    }
+}
@@ -1,10 +1,13 @@
 package com.datepeice.emonotes.entity;
 
+import com.datepeice.emonotes.util.MarkdownText;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.ToString;
+import org.hibernate.annotations.ColumnDefault;
 import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 @Entity
@@ -12,20 +15,83 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 @Data
 @EntityListeners(AuditingEntityListener.class)
 public class Note {
+    public static final int PREVIEW_LENGTH = 200;
+
+    // Последовательность с шагом 50 (pooled): id выдаются без похода в БД, и Hibernate может батчить INSERT
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "notes_seq")
+    @SequenceGenerator(name = "notes_seq", sequenceName = "notes_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne
+    // LAZY: владельца сверяем по user_id, сам User заметке почти никогда не нужен
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name="user_id", nullable=false)
     @ToString.Exclude
     @JsonIgnore
     private User user;
     private String title;
-    @Column(columnDefinition = "TEXT")
+
+    // Сжатый контент (формат - в NoteContentConverter); распаковывается только при загрузке заметки целиком
+    @Convert(converter = NoteContentConverter.class)
+    @Column(name = "content_data")
     private String content;
 
+    // Старый TEXT-столбец: строки, которые NoteContentMigrator ещё не перенёс в content_data
+    @JsonIgnore
+    @Column(name = "content", columnDefinition = "TEXT")
+    private String legacyContent;
+
+    // Чистый текст для списка заметок, пересчитывается при каждой смене контента
+    @JsonIgnore
+    @Column(name = "preview", length = PREVIEW_LENGTH + 3)
+    private String preview;
+
+    // Оптимистическая блокировка, она же ETag заметки
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long version;
+
     @CreatedDate
     @Column(name = "created_at", updatable = false)
     private java.time.LocalDateTime createdAt;
+
+    @LastModifiedDate
+    @Column(name = "updated_at")
+    private java.time.LocalDateTime updatedAt;
+
+    // Ревизия пользователя (users.notes_revision), при которой заметка менялась последний раз; по ней работает /changes
+    @JsonIgnore
+    @ColumnDefault("0")
+    @Column(name = "change_revision", nullable = false)
+    private long changeRevision;
+
+    // Надгробие: удалённая заметка хранит только id и ревизию, пока её не удалит NoteTombstonePurge
+    @JsonIgnore
+    @Column(name = "deleted_at")
+    private java.time.LocalDateTime deletedAt;
+
+    public String getContent() {
+        return content != null ? content : legacyContent;
+    }
+
+    public void setContent(String content) {
+        this.content = content;
+        this.legacyContent = null;
+        this.preview = MarkdownText.preview(content, PREVIEW_LENGTH);
+    }
+
+    @JsonIgnore
+    public boolean isDeleted() {
+        return deletedAt != null;
+    }
+
+    public void markDeleted(long revision) {
+        this.title = null;
+        this.content = null;
+        this.legacyContent = null;
+        this.preview = null;
+        this.changeRevision = revision;
+        this.deletedAt = java.time.LocalDateTime.now();
+    }
 }
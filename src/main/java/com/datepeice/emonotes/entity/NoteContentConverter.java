@@ -0,0 +1,104 @@
+package com.datepeice.emonotes.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+// Формат content_data: первый байт - заголовок, дальше UTF-8 как есть или DEFLATE от UTF-8
+@Converter
+public class NoteContentConverter implements AttributeConverter<String, byte[]> {
+    public static final byte FORMAT_RAW = 1;
+    public static final byte FORMAT_DEFLATE = 2;
+    public static final int DEFAULT_THRESHOLD_BYTES = 1024;
+
+    public NoteContentConverter() {
+        this(DEFAULT_THRESHOLD_BYTES);
+    }
+
+    public NoteContentConverter(int thresholdBytes) {
+        this.thresholdBytes = thresholdBytes;
+    }
+
+    private final int thresholdBytes;
+
+    @Override
+    public byte[] convertToDatabaseColumn(String content) {
+        if (content == null) {
+            return null;
+        }
+        byte[] utf8 = content.getBytes(StandardCharsets.UTF_8);
+        if (utf8.length > thresholdBytes) {
+            byte[] compressed = deflate(utf8);
+            // Несжимаемый контент храним как есть
+            if (compressed.length < utf8.length) {
+                return withHeader(FORMAT_DEFLATE, compressed);
+            }
+        }
+        return withHeader(FORMAT_RAW, utf8);
+    }
+
+    @Override
+    public String convertToEntityAttribute(byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        if (data.length == 0) {
+            return "";
+        }
+        return switch (data[0]) {
+            case FORMAT_RAW -> new String(data, 1, data.length - 1, StandardCharsets.UTF_8);
+            case FORMAT_DEFLATE -> new String(inflate(data), StandardCharsets.UTF_8);
+            default -> throw new IllegalStateException("Unknown note content format: " + data[0]);
+        };
+    }
+
+    private static byte[] withHeader(byte format, byte[] payload) {
+        byte[] data = new byte[payload.length + 1];
+        data[0] = format;
+        System.arraycopy(payload, 0, data, 1, payload.length);
+        return data;
+    }
+
+    private static byte[] deflate(byte[] input) {
+        var deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+            var output = new ByteArrayOutputStream(Math.max(64, input.length / 4));
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                int written = deflater.deflate(buffer);
+                output.write(buffer, 0, written);
+            }
+            return output.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] data) {
+        var inflater = new Inflater();
+        try {
+            inflater.setInput(data, 1, data.length - 1);
+            var output = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            while (!inflater.finished()) {
+                int read = inflater.inflate(buffer);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalStateException("Truncated note content");
+                }
+                output.write(buffer, 0, read);
+            }
+            return output.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupted note content", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -2,6 +2,7 @@
 
     import jakarta.persistence.*;
     import lombok.Data;
+    import org.hibernate.annotations.ColumnDefault;
     import org.springframework.security.core.GrantedAuthority;
     import org.springframework.security.core.authority.SimpleGrantedAuthority;
     import org.springframework.security.core.userdetails.UserDetails;
@@ -25,6 +26,17 @@
         @Column(name = "mfa_secret")
         private String mfaSecret;
 
+        // Счётчик изменений заметок пользователя для ETag; меняется только запросом incrementNotesRevision,
+        // поэтому сохранение закэшированного principal его не затирает
+        @ColumnDefault("0")
+        @Column(name = "notes_revision", nullable = false, insertable = false, updatable = false)
+        private long notesRevision;
+
+        // Ревизия, до которой надгробия удалённых заметок уже вычищены; более старый sync-токен требует полной загрузки
+        @ColumnDefault("0")
+        @Column(name = "notes_purged_revision", nullable = false, insertable = false, updatable = false)
+        private long notesPurgedRevision;
+
         @Override
         public Collection<? extends GrantedAuthority> getAuthorities() {
             if (this.roles == null || this.roles.isEmpty()) {
@@ -0,0 +1,7 @@
+package com.datepeice.emonotes.events;
+
+import com.datepeice.emonotes.dto.NoteChange;
+
+// revision - новое значение users.notes_revision, оно же id события в SSE
+public record NoteChangeEvent(Long userId, long revision, NoteChange change) {
+}
@@ -0,0 +1,34 @@
+package com.datepeice.emonotes.events;
+
+import com.datepeice.emonotes.dto.NoteChange;
+import com.datepeice.emonotes.repository.UserRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+// Каждая запись заметок увеличивает ревизию пользователя ровно один раз и публикует одно событие;
+// подписчики получат его только после коммита
+@Component
+public class NoteChangePublisher {
+    NoteChangePublisher(UserRepository userRepository, ApplicationEventPublisher eventPublisher) {
+        this.userRepository = userRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Вызывается до записи заметок: ревизия проставляется им в change_revision
+    @Transactional(propagation = Propagation.MANDATORY)
+    public long nextRevision(Long userId) {
+        userRepository.incrementNotesRevision(userId);
+        // Строка users заблокирована UPDATE-ом до конца транзакции: записи одного пользователя идут по очереди,
+        // поэтому порядок ревизий совпадает с порядком коммитов
+        return userRepository.findNotesRevision(userId);
+    }
+
+    public void publish(Long userId, long revision, NoteChange change) {
+        eventPublisher.publishEvent(new NoteChangeEvent(userId, revision, change));
+    }
+}
@@ -0,0 +1,305 @@
+package com.datepeice.emonotes.events;
+
+import com.datepeice.emonotes.dto.NoteChange;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Рассылка изменений заметок по SSE. Соединение - это async-запрос сервлета, поток на него не держится.
+// Состояние живёт в памяти инстанса: при нескольких репликах клиент видит события только своего инстанса
+@Component
+public class NoteEventStream implements AutoCloseable {
+    NoteEventStream(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                    @Value("${emonotes.events.replay-size:100}") int replaySize,
+                    @Value("${emonotes.events.timeout:30m}") Duration timeout,
+                    @Value("${emonotes.events.idle-channel-expiry:10m}") Duration idleChannelExpiry,
+                    @Value("${emonotes.events.send-threads:4}") int sendThreads) {
+        this.objectMapper = objectMapper;
+        this.replaySize = replaySize;
+        this.timeout = timeout;
+        this.idleChannelExpiry = idleChannelExpiry;
+
+        // Очередь без границы: в ней не больше одной задачи на канал, остальное ждёт в outbox канала
+        var threadCounter = new AtomicInteger();
+        this.sender = new ThreadPoolExecutor(sendThreads, sendThreads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    var thread = new Thread(runnable, "note-events-" + threadCounter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        Gauge.builder("emonotes.events.connections", this, NoteEventStream::connections)
+                .description("Open note event streams")
+                .register(meterRegistry);
+    }
+
+    private final ObjectMapper objectMapper;
+    private final int replaySize;
+    private final Duration timeout;
+    private final Duration idleChannelExpiry;
+    private final ThreadPoolExecutor sender;
+    private final Map<Long, Channel> channels = new ConcurrentHashMap<>();
+
+    private record BufferedEvent(long revision, String name, String data) {
+    }
+
+    // event == null - heartbeat-комментарий для всех текущих подписчиков
+    private record Pending(long sequence, BufferedEvent event) {
+    }
+
+    // fromSequence - всё до него подписчик уже получил при подключении (ready или replay)
+    private record Subscriber(SseEmitter emitter, long fromSequence) {
+    }
+
+    // Подключения и последние события одного пользователя; состояние под lock, сеть - вне его.
+    // outbox разбирает одна задача sender за раз, поэтому порядок отправки внутри канала сохраняется
+    private static class Channel {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final List<Subscriber> subscribers = new ArrayList<>();
+        private final Deque<BufferedEvent> recent = new ArrayDeque<>();
+        private final Deque<Pending> outbox = new ArrayDeque<>();
+        private long sequence;
+        private boolean draining;
+        private long idleSince = System.nanoTime();
+        private boolean closed;
+    }
+
+    // lastEventId == null - новое подключение без истории; currentRevision прочитана из БД перед вызовом
+    public SseEmitter subscribe(Long userId, Long lastEventId, long currentRevision) {
+        var emitter = new SseEmitter(timeout.toMillis());
+        boolean subscribed = false;
+        while (!subscribed) {
+            Channel channel = channels.computeIfAbsent(userId, id -> new Channel());
+            channel.lock.lock();
+            try {
+                if (channel.closed) {
+                    continue; // канал только что удалён очисткой, берём новый
+                }
+                long known = channel.recent.isEmpty() ? currentRevision : Math.max(currentRevision, channel.recent.getLast().revision());
+                if (lastEventId == null) {
+                    send(emitter, new BufferedEvent(known, "ready", "{}"));
+                } else if (lastEventId < known) {
+                    replay(channel, emitter, lastEventId, known);
+                }
+                // До возврата из контроллера send только буферизуется в emitter, под lock сети нет
+                channel.subscribers.add(new Subscriber(emitter, channel.sequence));
+                subscribed = true;
+            } finally {
+                channel.lock.unlock();
+            }
+        }
+        Runnable remove = () -> remove(userId, emitter);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(error -> remove.run());
+        return emitter;
+    }
+
+    // Вызывается в потоке закоммитившей транзакции: только кладём событие в канал, отправляет sender
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onNoteChange(NoteChangeEvent event) {
+        Channel channel = channels.get(event.userId());
+        if (channel == null) {
+            return; // никто не слушает; переподключившийся клиент получит reset
+        }
+        var buffered = new BufferedEvent(event.revision(), event.change().getType(), toJson(event.change()));
+        boolean startDrain = false;
+        channel.lock.lock();
+        try {
+            addInOrder(channel.recent, buffered);
+            while (channel.recent.size() > replaySize) {
+                channel.recent.removeFirst();
+            }
+            if (!channel.subscribers.isEmpty()) {
+                startDrain = enqueue(channel, new Pending(++channel.sequence, buffered));
+            }
+        } finally {
+            channel.lock.unlock();
+        }
+        if (startDrain) {
+            scheduleDrain(channel);
+        }
+    }
+
+    // Комментарий раз в heartbeat-ms не даёт прокси закрыть простаивающее соединение и выявляет мёртвые.
+    // Сам send идёт через outbox канала в sender: медленный клиент не держит поток планировщика
+    @Scheduled(fixedDelayString = "${emonotes.events.heartbeat-ms:25000}")
+    public void heartbeat() {
+        long now = System.nanoTime();
+        channels.forEach((userId, channel) -> {
+            boolean startDrain = false;
+            channel.lock.lock();
+            try {
+                if (!channel.subscribers.isEmpty()) {
+                    // Непустой outbox - канал и так отправляет, heartbeat за медленным клиентом не копим
+                    if (channel.outbox.isEmpty()) {
+                        startDrain = enqueue(channel, new Pending(channel.sequence, null));
+                    }
+                } else if (now - channel.idleSince > idleChannelExpiry.toNanos()) {
+                    channel.closed = true;
+                    channels.remove(userId, channel);
+                }
+            } finally {
+                channel.lock.unlock();
+            }
+            if (startDrain) {
+                scheduleDrain(channel);
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+        sender.shutdownNow();
+    }
+
+    int connections() {
+        return channels.values().stream().mapToInt(channel -> channel.subscribers.size()).sum();
+    }
+
+    private void drain(Channel channel) {
+        while (true) {
+            Pending next;
+            List<Subscriber> targets;
+            channel.lock.lock();
+            try {
+                next = channel.outbox.pollFirst();
+                if (next == null) {
+                    channel.draining = false;
+                    return;
+                }
+                targets = List.copyOf(channel.subscribers);
+            } finally {
+                channel.lock.unlock();
+            }
+            // Медленный клиент задерживает только свой канал, а не транзакции и других пользователей
+            for (Subscriber subscriber : targets) {
+                if (next.event() == null) {
+                    if (!sendHeartbeat(subscriber.emitter())) {
+                        remove(channel, subscriber.emitter());
+                    }
+                } else if (next.sequence() > subscriber.fromSequence() && !send(subscriber.emitter(), next.event())) {
+                    remove(channel, subscriber.emitter());
+                }
+            }
+        }
+    }
+
+    // Вызывается под lock канала; true - разбор outbox ещё не запущен, его должен запустить вызывающий
+    private static boolean enqueue(Channel channel, Pending pending) {
+        channel.outbox.addLast(pending);
+        boolean start = !channel.draining;
+        channel.draining = true;
+        return start;
+    }
+
+    private void scheduleDrain(Channel channel) {
+        try {
+            sender.execute(() -> drain(channel));
+        } catch (RejectedExecutionException e) {
+            // Приложение останавливается, соединения всё равно закроются
+            channel.lock.lock();
+            try {
+                channel.outbox.clear();
+                channel.draining = false;
+            } finally {
+                channel.lock.unlock();
+            }
+        }
+    }
+
+    // Транзакции коммитятся не в порядке ревизий: буфер держим упорядоченным, иначе replay потеряет события
+    private static void addInOrder(Deque<BufferedEvent> recent, BufferedEvent event) {
+        Deque<BufferedEvent> later = new ArrayDeque<>();
+        while (!recent.isEmpty() && recent.getLast().revision() > event.revision()) {
+            later.addFirst(recent.removeLast());
+        }
+        recent.addLast(event);
+        recent.addAll(later);
+    }
+
+    private void replay(Channel channel, SseEmitter emitter, long lastEventId, long known) {
+        // Буфер покрывает пропуск, только если в нём есть событие сразу после lastEventId
+        boolean covered = !channel.recent.isEmpty() && channel.recent.getFirst().revision() <= lastEventId + 1;
+        if (!covered) {
+            send(emitter, new BufferedEvent(known, NoteChange.RESET, toJson(NoteChange.reset())));
+            return;
+        }
+        for (BufferedEvent event : channel.recent) {
+            if (event.revision() > lastEventId) {
+                send(emitter, event);
+            }
+        }
+    }
+
+    private void remove(Long userId, SseEmitter emitter) {
+        Channel channel = channels.get(userId);
+        if (channel != null) {
+            remove(channel, emitter);
+        }
+    }
+
+    private static void remove(Channel channel, SseEmitter emitter) {
+        channel.lock.lock();
+        try {
+            if (channel.subscribers.removeIf(subscriber -> subscriber.emitter() == emitter)
+                    && channel.subscribers.isEmpty()) {
+                channel.idleSince = System.nanoTime();
+            }
+        } finally {
+            channel.lock.unlock();
+        }
+    }
+
+    private static boolean send(SseEmitter emitter, BufferedEvent event) {
+        try {
+            emitter.send(SseEmitter.event()
+                    .id(String.valueOf(event.revision()))
+                    .name(event.name())
+                    .data(event.data()));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // Клиент отключился; Spring завершит emitter сам
+            return false;
+        }
+    }
+
+    private static boolean sendHeartbeat(SseEmitter emitter) {
+        try {
+            emitter.send(SseEmitter.event().comment("heartbeat"));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            return false;
+        }
+    }
+
+    private String toJson(NoteChange change) {
+        try {
+            return objectMapper.writeValueAsString(change);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize note change", e);
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.datepeice.emonotes.exception;
 
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -21,6 +23,43 @@ public class GlobalExceptionHandler {
     public ResponseEntity<String> handleAccessDenied(AccessDeniedException e) {
         return ResponseEntity.status(403).body(e.getMessage());
     }
+
+    @ExceptionHandler(BadRequestException.class)
+    public ResponseEntity<String> handleBadRequest(BadRequestException e) {
+        return ResponseEntity.status(400).body(e.getMessage());
+    }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<String> handlePreconditionFailed(PreconditionFailedException e) {
+        return ResponseEntity.status(412).body(e.getMessage());
+    }
+
+    @ExceptionHandler(PreconditionRequiredException.class)
+    public ResponseEntity<String> handlePreconditionRequired(PreconditionRequiredException e) {
+        return ResponseEntity.status(428).body(e.getMessage());
+    }
+
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleOptimisticLock(ObjectOptimisticLockingFailureException e) {
+        return ResponseEntity.status(409).body("Note was modified concurrently, reload it and retry");
+    }
+
+    @ExceptionHandler(ServiceBusyException.class)
+    public ResponseEntity<String> handleServiceBusy(ServiceBusyException e) {
+        return ResponseEntity.status(503)
+                .header("Retry-After", String.valueOf(e.getRetryAfterSeconds()))
+                .body(e.getMessage());
+    }
+
+    // DaoAuthenticationProvider оборачивает ошибки, возникшие при поиске пользователя
+    @ExceptionHandler(InternalAuthenticationServiceException.class)
+    public ResponseEntity<String> handleInternalAuthentication(InternalAuthenticationServiceException e) {
+        if (e.getCause() instanceof ServiceBusyException busy) {
+            return handleServiceBusy(busy);
+        }
+        return ResponseEntity.status(500).body("Authentication failed");
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Map<String, String>> handleValidationExceptions(MethodArgumentNotValidException ex) {
         Map<String, String> errors = new HashMap<>();
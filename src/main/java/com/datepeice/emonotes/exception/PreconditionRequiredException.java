@@ -0,0 +1,7 @@
+package com.datepeice.emonotes.exception;
+
+public class PreconditionRequiredException extends RuntimeException {
+    public PreconditionRequiredException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,59 @@
+package com.datepeice.emonotes.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+// Число SQL на HTTP-запрос, включая поиск пользователя в JwtRequestFilter.
+// Асинхронная часть (стриминг экспорта) идёт в другом потоке и сюда не попадает
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class QueryCountFilter extends OncePerRequestFilter {
+    public QueryCountFilter(MeterRegistry meterRegistry,
+                            @Value("${emonotes.query-guard.warn-threshold:10}") int warnThreshold,
+                            @Value("${emonotes.query-guard.strict:false}") boolean strict) {
+        this.meterRegistry = meterRegistry;
+        this.warnThreshold = warnThreshold;
+        this.strict = strict;
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(QueryCountFilter.class);
+
+    private final MeterRegistry meterRegistry;
+    private final int warnThreshold;
+    private final boolean strict;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        int count;
+        try (var scope = QueryCounter.open(strict ? warnThreshold : 0)) {
+            filterChain.doFilter(request, response);
+            count = scope.count();
+        }
+
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        DistributionSummary.builder("emonotes.http.queries")
+                .description("SQL statements issued per HTTP request")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(count);
+        if (count > warnThreshold) {
+            log.warn("{} {} issued {} SQL statements (threshold {}), possible N+1", request.getMethod(), uri, count, warnThreshold);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.datepeice.emonotes.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Считает SQL, которые Hibernate готовит в текущем потоке; подключается через
+// spring.jpa.properties.hibernate.session_factory.statement_inspector, поэтому состояние статическое
+public class QueryCounter implements StatementInspector {
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    // limit = 0 - только считать; иначе запрос сверх лимита падает с QueryLimitExceededException
+    public static Scope open(int limit) {
+        var scope = new Scope(limit, CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        Scope scope = CURRENT.get();
+        if (scope != null) {
+            scope.onStatement(sql);
+        }
+        return sql;
+    }
+
+    public static final class Scope implements AutoCloseable {
+        private Scope(int limit, Scope parent) {
+            this.limit = limit;
+            this.parent = parent;
+        }
+
+        private final int limit;
+        private final Scope parent;
+        private int count;
+
+        public int count() {
+            return count;
+        }
+
+        private void onStatement(String sql) {
+            count++;
+            if (limit > 0 && count > limit) {
+                throw new QueryLimitExceededException(count, limit, sql);
+            }
+        }
+
+        @Override
+        public void close() {
+            if (parent == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(parent);
+            }
+        }
+    }
+
+    public static class QueryLimitExceededException extends IllegalStateException {
+        QueryLimitExceededException(int count, int limit, String sql) {
+            super("Query #" + count + " exceeds the limit of " + limit + " per request (possible N+1): " + sql);
+        }
+    }
+}
@@ -2,10 +2,117 @@ package com.datepeice.emonotes.repository;
 
 import com.datepeice.emonotes.entity.Note;
 import com.datepeice.emonotes.entity.User;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface NoteRepository extends JpaRepository<Note, Long> {
+    // Список читает только готовое превью; у ещё не заполненных NotePreviewBackfill строк - начало старого TEXT
+    String PREVIEW_SELECT = "SELECT n.id, n.title, coalesce(n.preview, left(n.content, 200)), n.created_at FROM notes n ";
+
     List<Note> findAllByUser(User user);
+
+    // Владелец проверяется в WHERE по user_id: один SELECT без JOIN users, чужая заметка неотличима от отсутствующей
+    @Query("select n from Note n where n.id = :id and n.user.id = :userId and n.deletedAt is null")
+    Optional<Note> findOwned(@Param("id") Long id, @Param("userId") Long userId);
+
+    @Query("select count(n) > 0 from Note n where n.id = :id and n.user.id = :userId and n.deletedAt is null")
+    boolean existsOwned(@Param("id") Long id, @Param("userId") Long userId);
+
+    // Полная замена заметки одним UPDATE ... RETURNING: версия и дата создания нужны для ETag и события.
+    // contentData уже в формате NoteContentConverter; expectedVersion == null - без проверки версии
+    @Query(value = "UPDATE notes SET title = :title, content_data = CAST(:contentData AS bytea), content = NULL, " +
+            "preview = :preview, version = version + 1, change_revision = :revision, updated_at = :now " +
+            "WHERE id = :id AND user_id = :userId AND deleted_at IS NULL " +
+            "AND (CAST(:expectedVersion AS bigint) IS NULL OR version = :expectedVersion) " +
+            "RETURNING version, created_at", nativeQuery = true)
+    List<Object[]> updateOwned(@Param("id") Long id, @Param("userId") Long userId,
+                               @Param("title") String title, @Param("contentData") byte[] contentData,
+                               @Param("preview") String preview, @Param("expectedVersion") Long expectedVersion,
+                               @Param("revision") long revision, @Param("now") LocalDateTime now);
+
+    // Курсор на стороне Postgres: строки приходят пачками по fetchSize, а не все сразу
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "200"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("select n from Note n where n.user.id = :userId and n.deletedAt is null order by n.id")
+    Stream<Note> streamAllByUserId(@Param("userId") Long userId);
+
+    @Query(value = PREVIEW_SELECT + "WHERE n.user_id = :userId AND n.deleted_at IS NULL " +
+            "ORDER BY n.created_at DESC, n.id DESC LIMIT :limit", nativeQuery = true)
+    List<Object[]> findPreviewPage(@Param("userId") Long userId, @Param("limit") int limit);
+
+    @Query(value = PREVIEW_SELECT + "WHERE n.user_id = :userId AND n.deleted_at IS NULL " +
+            "AND (n.created_at, n.id) < (:createdAt, :id) " +
+            "ORDER BY n.created_at DESC, n.id DESC LIMIT :limit", nativeQuery = true)
+    List<Object[]> findPreviewPageAfter(@Param("userId") Long userId,
+                                        @Param("createdAt") LocalDateTime createdAt,
+                                        @Param("id") Long id,
+                                        @Param("limit") int limit);
+
+    // search_vector и GIN-индекс создаются миграцией V2; сниппеты строятся в Java по найденным заметкам
+    @Query(value = "SELECT n.id FROM notes n, websearch_to_tsquery('simple', :query) q " +
+            "WHERE n.user_id = :userId AND n.deleted_at IS NULL AND n.search_vector @@ q " +
+            "ORDER BY ts_rank_cd(n.search_vector, q) DESC, n.created_at DESC, n.id DESC " +
+            "LIMIT :limit", nativeQuery = true)
+    List<Long> searchIdsByUser(@Param("userId") Long userId, @Param("query") String query, @Param("limit") int limit);
+
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE notes SET search_vector = " +
+            "setweight(to_tsvector('simple', coalesce(:title, '')), 'A') || " +
+            "setweight(to_tsvector('simple', coalesce(:body, '')), 'B') " +
+            "WHERE id = :id", nativeQuery = true)
+    void updateSearchVector(@Param("id") Long id, @Param("title") String title, @Param("body") String body);
+
+    @Query(value = "SELECT n.id, n.content FROM notes n WHERE n.content IS NOT NULL ORDER BY n.id LIMIT :limit",
+            nativeQuery = true)
+    List<Object[]> findLegacyContent(@Param("limit") int limit);
+
+    // Версию не трогаем: содержимое заметки не меняется, меняется только способ хранения
+    @Modifying
+    @Query(value = "UPDATE notes SET content_data = :data, content = NULL WHERE id = :id AND content IS NOT NULL",
+            nativeQuery = true)
+    int moveToContentData(@Param("id") Long id, @Param("data") byte[] data);
+
+    @Query(value = "SELECT n.id FROM notes n WHERE n.preview IS NULL AND n.deleted_at IS NULL ORDER BY n.id LIMIT :limit",
+            nativeQuery = true)
+    List<Long> findIdsWithoutPreview(@Param("limit") int limit);
+
+    // preview IS NULL: если заметку успели отредактировать, её превью уже свежее - не затираем
+    @Modifying
+    @Query(value = "UPDATE notes SET preview = :preview WHERE id = :id AND preview IS NULL", nativeQuery = true)
+    int updatePreview(@Param("id") Long id, @Param("preview") String preview);
+
+    // Изменения после sync-токена (ревизия, id), включая надгробия; upTo отсекает ревизии, закоммиченные после чтения
+    @Query(value = "SELECT n.id, n.title, coalesce(n.preview, left(n.content, 200)), n.created_at, n.version, " +
+            "n.change_revision, n.deleted_at IS NOT NULL FROM notes n " +
+            "WHERE n.user_id = :userId AND (n.change_revision, n.id) > (:revision, :afterId) " +
+            "AND n.change_revision <= :upTo " +
+            "ORDER BY n.change_revision, n.id LIMIT :limit", nativeQuery = true)
+    List<Object[]> findChangesAfter(@Param("userId") Long userId,
+                                    @Param("revision") long revision,
+                                    @Param("afterId") long afterId,
+                                    @Param("upTo") long upTo,
+                                    @Param("limit") int limit);
+
+    // Мягкое удаление пачкой: строка остаётся надгробием для /changes.
+    // RETURNING id - только реально удалённые: чужие и уже удалённые id в ответ не попадут
+    @Query(value = "UPDATE notes SET deleted_at = :now, updated_at = :now, change_revision = :revision, " +
+            "title = NULL, content = NULL, content_data = NULL, preview = NULL, version = version + 1 " +
+            "WHERE id IN (:ids) AND user_id = :userId AND deleted_at IS NULL " +
+            "RETURNING id", nativeQuery = true)
+    List<Long> markDeleted(@Param("ids") Collection<Long> ids, @Param("userId") Long userId,
+                    @Param("revision") long revision, @Param("now") LocalDateTime now);
 }
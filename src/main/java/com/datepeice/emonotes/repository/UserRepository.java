@@ -2,7 +2,11 @@ package com.datepeice.emonotes.repository;
 
 import com.datepeice.emonotes.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
@@ -10,4 +14,20 @@ import java.util.Optional;
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
     boolean existsByUsername(String username);
+
+    @Query("select u.notesRevision from User u where u.id = :id")
+    long findNotesRevision(@Param("id") Long id);
+
+    @Query("select u.notesPurgedRevision from User u where u.id = :id")
+    long findNotesPurgedRevision(@Param("id") Long id);
+
+    @Modifying
+    @Query("update User u set u.notesRevision = u.notesRevision + 1 where u.id = :id")
+    int incrementNotesRevision(@Param("id") Long id);
+
+    // Точечный UPDATE: principal в запросе - копия, сохранять его целиком значит затереть чужие изменения
+    @Transactional
+    @Modifying
+    @Query("update User u set u.mfaSecret = :secret where u.id = :id")
+    int updateMfaSecret(@Param("id") Long id, @Param("secret") String secret);
 }
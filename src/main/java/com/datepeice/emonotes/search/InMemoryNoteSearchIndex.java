@@ -0,0 +1,159 @@
+package com.datepeice.emonotes.search;
+
+import com.datepeice.emonotes.dto.NotePreview;
+import com.datepeice.emonotes.entity.Note;
+import com.datepeice.emonotes.repository.NoteRepository;
+import com.datepeice.emonotes.util.MarkdownText;
+import jakarta.annotation.PostConstruct;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Встроенная замена Postgres FTS для тестов и локальной разработки
+@Component
+@ConditionalOnProperty(name = "emonotes.search.engine", havingValue = "memory")
+public class InMemoryNoteSearchIndex implements NoteSearchIndex {
+    InMemoryNoteSearchIndex(NoteRepository noteRepository) {
+        this.noteRepository = noteRepository;
+    }
+
+    private final NoteRepository noteRepository;
+
+    private static final int TITLE_WEIGHT = 2;
+
+    private final Map<String, Map<Long, Integer>> postings = new HashMap<>();
+    private final Map<Long, IndexedNote> documents = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private record IndexedNote(Long id, Long userId, String title, String text,
+                               LocalDateTime createdAt, Set<String> terms) {
+    }
+
+    private record Hit(IndexedNote note, double score) {
+    }
+
+    @PostConstruct
+    void loadExistingNotes() {
+        noteRepository.findAll().stream()
+                .filter(note -> !note.isDeleted())
+                .forEach(this::index);
+    }
+
+    @Override
+    public List<NotePreview> search(Long userId, String query, int limit) {
+        List<String> queryTerms = Snippets.tokenize(query);
+        if (queryTerms.isEmpty()) {
+            return List.of();
+        }
+
+        List<Hit> hits = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            // Начинаем с самого редкого терма, остальные только фильтруют кандидатов
+            List<Map<Long, Integer>> termPostings = new ArrayList<>();
+            for (String term : new LinkedHashSet<>(queryTerms)) {
+                Map<Long, Integer> docs = postings.get(term);
+                if (docs == null) {
+                    return List.of();
+                }
+                termPostings.add(docs);
+            }
+            termPostings.sort(Comparator.comparingInt(Map::size));
+
+            int totalDocs = documents.size();
+            for (Long noteId : termPostings.get(0).keySet()) {
+                IndexedNote note = documents.get(noteId);
+                if (!note.userId().equals(userId)) {
+                    continue;
+                }
+                double score = 0;
+                boolean matchesAll = true;
+                for (Map<Long, Integer> docs : termPostings) {
+                    Integer frequency = docs.get(noteId);
+                    if (frequency == null) {
+                        matchesAll = false;
+                        break;
+                    }
+                    score += frequency * Math.log(1.0 + (double) totalDocs / docs.size());
+                }
+                if (matchesAll) {
+                    hits.add(new Hit(note, score));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return hits.stream()
+                .sorted(Comparator.comparingDouble(Hit::score).reversed()
+                        .thenComparing(hit -> hit.note().createdAt(), Comparator.nullsLast(Comparator.reverseOrder())))
+                .limit(limit)
+                .map(hit -> new NotePreview(
+                        hit.note().id(),
+                        hit.note().title(),
+                        Snippets.highlight(hit.note().text(), queryTerms),
+                        hit.note().createdAt()
+                ))
+                .toList();
+    }
+
+    @Override
+    public void index(Note note) {
+        String text = MarkdownText.toPlainText(note.getContent());
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String term : Snippets.tokenize(note.getTitle())) {
+            frequencies.merge(term, TITLE_WEIGHT, Integer::sum);
+        }
+        for (String term : Snippets.tokenize(text)) {
+            frequencies.merge(term, 1, Integer::sum);
+        }
+
+        var indexed = new IndexedNote(note.getId(), note.getUser().getId(), note.getTitle(), text,
+                note.getCreatedAt(), frequencies.keySet());
+        lock.writeLock().lock();
+        try {
+            removeLocked(note.getId());
+            documents.put(note.getId(), indexed);
+            frequencies.forEach((term, frequency) ->
+                    postings.computeIfAbsent(term, t -> new HashMap<>()).put(note.getId(), frequency));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long noteId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(noteId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeLocked(Long noteId) {
+        IndexedNote previous = documents.remove(noteId);
+        if (previous == null) {
+            return;
+        }
+        for (String term : previous.terms()) {
+            Map<Long, Integer> docs = postings.get(term);
+            if (docs != null) {
+                docs.remove(noteId);
+                if (docs.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+}
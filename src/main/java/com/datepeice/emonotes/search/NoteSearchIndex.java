@@ -0,0 +1,24 @@
+package com.datepeice.emonotes.search;
+
+import com.datepeice.emonotes.dto.NotePreview;
+import com.datepeice.emonotes.entity.Note;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface NoteSearchIndex {
+    // previewContent в результатах содержит сниппет с совпадениями в <mark>
+    List<NotePreview> search(Long userId, String query, int limit);
+
+    void index(Note note);
+
+    default void indexAll(Collection<Note> notes) {
+        notes.forEach(this::index);
+    }
+
+    void remove(Long noteId);
+
+    default void removeAll(Collection<Long> noteIds) {
+        noteIds.forEach(this::remove);
+    }
+}
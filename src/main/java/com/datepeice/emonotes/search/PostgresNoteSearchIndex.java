@@ -0,0 +1,73 @@
+package com.datepeice.emonotes.search;
+
+import com.datepeice.emonotes.dto.NotePreview;
+import com.datepeice.emonotes.entity.Note;
+import com.datepeice.emonotes.repository.NoteRepository;
+import com.datepeice.emonotes.util.MarkdownText;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Component
+@ConditionalOnProperty(name = "emonotes.search.engine", havingValue = "postgres", matchIfMissing = true)
+public class PostgresNoteSearchIndex implements NoteSearchIndex {
+    PostgresNoteSearchIndex(NoteRepository noteRepository, JdbcTemplate jdbcTemplate) {
+        this.noteRepository = noteRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    private static final String UPDATE_SEARCH_VECTOR = "UPDATE notes SET search_vector = " +
+            "setweight(to_tsvector('simple', coalesce(?, '')), 'A') || " +
+            "setweight(to_tsvector('simple', coalesce(?, '')), 'B') WHERE id = ?";
+
+    private final NoteRepository noteRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<NotePreview> search(Long userId, String query, int limit) {
+        List<Long> rankedIds = noteRepository.searchIdsByUser(userId, query, limit);
+        if (rankedIds.isEmpty()) {
+            return List.of();
+        }
+        // Контент может быть сжат, поэтому сниппеты строим в Java, и только для найденной страницы
+        Map<Long, Note> notes = noteRepository.findAllById(rankedIds).stream()
+                .collect(Collectors.toMap(Note::getId, Function.identity()));
+        List<String> queryTerms = Snippets.tokenize(query);
+        return rankedIds.stream()
+                .map(notes::get)
+                .filter(Objects::nonNull)
+                .map(note -> new NotePreview(
+                        note.getId(),
+                        note.getTitle(),
+                        Snippets.highlight(MarkdownText.toPlainText(note.getContent()), queryTerms),
+                        note.getCreatedAt()
+                ))
+                .toList();
+    }
+
+    @Override
+    public void index(Note note) {
+        noteRepository.updateSearchVector(note.getId(), note.getTitle(), MarkdownText.toPlainText(note.getContent()));
+    }
+
+    // Одним JDBC-батчем; вызывающий должен сделать flush, чтобы строки уже были в БД
+    @Override
+    public void indexAll(Collection<Note> notes) {
+        List<Object[]> args = notes.stream()
+                .map(note -> new Object[]{note.getTitle(), MarkdownText.toPlainText(note.getContent()), note.getId()})
+                .toList();
+        jdbcTemplate.batchUpdate(UPDATE_SEARCH_VECTOR, args);
+    }
+
+    @Override
+    public void remove(Long noteId) {
+        // Надгробия отсекает searchIdsByUser, search_vector уйдёт вместе со строкой при очистке
+    }
+}
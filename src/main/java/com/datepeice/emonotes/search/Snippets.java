@@ -0,0 +1,99 @@
+package com.datepeice.emonotes.search;
+
+import org.springframework.web.util.HtmlUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+final class Snippets {
+    private static final int SNIPPET_RADIUS = 60;
+
+    private Snippets() {
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                terms.add(lowerCase(text.substring(start, i)));
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    // Окно текста вокруг первого совпадения в виде HTML: текст экранирован, совпавшие слова обёрнуты в <mark>.
+    // Сравниваем regionMatches по исходной строке: у String.toLowerCase длина может поменяться ('İ' -> "i̇"),
+    // и смещения из неё уехали бы относительно text
+    static String highlight(String text, List<String> queryTerms) {
+        int first = -1;
+        for (String term : queryTerms) {
+            int position = indexOfIgnoreCase(text, term);
+            if (position >= 0 && (first < 0 || position < first)) {
+                first = position;
+            }
+        }
+        int from = Math.max(0, first - SNIPPET_RADIUS);
+        int to = Math.min(text.length(), Math.max(first, 0) + SNIPPET_RADIUS * 2);
+
+        var snippet = new StringBuilder();
+        if (from > 0) {
+            snippet.append("...");
+        }
+        int i = from;
+        int plainFrom = from;
+        while (i < to) {
+            int matchLength = 0;
+            if (i == 0 || !Character.isLetterOrDigit(text.charAt(i - 1))) {
+                for (String term : queryTerms) {
+                    int end = i + term.length();
+                    if (end <= text.length() && text.regionMatches(true, i, term, 0, term.length())
+                            && (end == text.length() || !Character.isLetterOrDigit(text.charAt(end)))) {
+                        matchLength = term.length();
+                        break;
+                    }
+                }
+            }
+            if (matchLength > 0) {
+                snippet.append(HtmlUtils.htmlEscape(text.substring(plainFrom, i)))
+                        .append("<mark>")
+                        .append(HtmlUtils.htmlEscape(text.substring(i, i + matchLength)))
+                        .append("</mark>");
+                i += matchLength;
+                plainFrom = i;
+            } else {
+                i++;
+            }
+        }
+        snippet.append(HtmlUtils.htmlEscape(text.substring(plainFrom, Math.max(plainFrom, to))));
+        if (to < text.length()) {
+            snippet.append("...");
+        }
+        return snippet.toString();
+    }
+
+    // Посимвольно, чтобы термин оставался той же длины, что и слово в тексте
+    private static String lowerCase(String word) {
+        var lower = new StringBuilder(word.length());
+        for (int i = 0; i < word.length(); i++) {
+            lower.append(Character.toLowerCase(word.charAt(i)));
+        }
+        return lower.toString();
+    }
+
+    private static int indexOfIgnoreCase(String text, String term) {
+        for (int i = 0; i + term.length() <= text.length(); i++) {
+            if (text.regionMatches(true, i, term, 0, term.length())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -1,5 +1,11 @@
 package com.datepeice.emonotes.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
@@ -7,44 +13,102 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
 import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtCore {
-    @Value("${spring.security.key}")
-    private String secret;
-    private long lifetime = 86400000;
-
-    private SecretKey key(String secret) {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+    public JwtCore(@Value("${spring.security.key}") String secret,
+                   @Value("${emonotes.jwt.verified-cache-size:0}") long verifiedCacheSize) {
+        // Ключ и парсер неизменяемы и потокобезопасны, собираем их один раз
+        this.key = Keys.hmacShaKeyFor(secret.getBytes());
+        this.parser = Jwts.parser().verifyWith(key).build();
+        this.verifiedTokens = verifiedCacheSize > 0
+                ? Caffeine.newBuilder().maximumSize(verifiedCacheSize).expireAfter(new UntilTokenExpiry()).build()
+                : null;
     }
 
+    private final SecretKey key;
+    private final JwtParser parser;
+    private final Cache<String, VerifiedToken> verifiedTokens;
+    private long lifetime = 86400000;
+
     public String generateToken(Authentication authentication) {
         UserDetails userDetails = (UserDetails) authentication.getPrincipal();
         return Jwts.builder()
                 .subject(userDetails.getUsername())
                 .issuedAt(new Date())
                 .expiration(new Date(System.currentTimeMillis() + lifetime))
-                .signWith(key(secret))
+                .signWith(key)
                 .compact();
     }
 
+    // Единственная точка проверки подписи и срока действия; пустой результат для любого невалидного токена
+    public Optional<VerifiedToken> verify(String token) {
+        if (verifiedTokens == null) {
+            return parse(token);
+        }
+        String digest = digest(token);
+        VerifiedToken cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<VerifiedToken> verified = parse(token);
+        verified.ifPresent(result -> verifiedTokens.put(digest, result));
+        return verified;
+    }
+
     public String getUsernameFromToken(String token) {
-        return Jwts.parser()
-                .verifyWith(key(this.secret))
-                .build().parseSignedClaims(token)
-                .getPayload().getSubject();
+        return verify(token).map(VerifiedToken::subject).orElse(null);
     }
 
     public boolean validateToken(String token) {
+        return verify(token).isPresent();
+    }
+
+    private Optional<VerifiedToken> parse(String token) {
         try {
-            Jwts.parser()
-                    .verifyWith(key(this.secret))
-                    .build()
-                    .parseSignedClaims(token);
-            return true;
-        } catch (Exception e) {
-            return false;
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            if (claims.getSubject() == null || claims.getExpiration() == null) {
+                return Optional.empty();
+            }
+            return Optional.of(new VerifiedToken(claims.getSubject(), claims.getExpiration().toInstant(), claims));
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    // Запись живёт ровно до истечения самого токена
+    private static class UntilTokenExpiry implements Expiry<String, VerifiedToken> {
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+            long millisLeft = value.expiresAt().toEpochMilli() - Instant.now().toEpochMilli();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, millisLeft));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
         }
     }
 }
@@ -1,6 +1,8 @@
 package com.datepeice.emonotes.security;
 
 import com.datepeice.emonotes.service.CustomUserDetailsService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -8,6 +10,7 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
@@ -15,13 +18,21 @@ import java.io.IOException;
 
 @Component
 public class JwtRequestFilter extends OncePerRequestFilter {
-    public JwtRequestFilter(JwtCore jwtCore, CustomUserDetailsService userDetailsService) {
+    public JwtRequestFilter(JwtCore jwtCore, CustomUserDetailsService userDetailsService, MeterRegistry meterRegistry) {
         this.userDetailsService = userDetailsService;
         this.jwtCore = jwtCore;
+        this.verifyTimer = Timer.builder("emonotes.jwt.verify")
+                .description("JWT signature and expiry verification")
+                .register(meterRegistry);
+        this.userLookupTimer = Timer.builder("emonotes.auth.user.lookup")
+                .description("Principal lookup for an authenticated request (cache or database)")
+                .register(meterRegistry);
     }
 
     private final JwtCore jwtCore;
     private final CustomUserDetailsService userDetailsService;
+    private final Timer verifyTimer;
+    private final Timer userLookupTimer;
 
 
     @Override
@@ -33,10 +44,20 @@ public class JwtRequestFilter extends OncePerRequestFilter {
         }
         String authHeader = request.getHeader("Authorization");
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            String jwt = authHeader.substring(7);
-            String username = jwtCore.getUsernameFromToken(jwt);
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
-            if (SecurityContextHolder.getContext().getAuthentication() == null && jwtCore.validateToken(jwt)) {
+            String token = authHeader.substring(7);
+            var verified = verifyTimer.record(() -> jwtCore.verify(token));
+            if (verified.isEmpty()) {
+                reject(response, "Invalid or expired token");
+                return;
+            }
+            if (SecurityContextHolder.getContext().getAuthentication() == null) {
+                UserDetails userDetails;
+                try {
+                    userDetails = userLookupTimer.record(() -> userDetailsService.loadPrincipal(verified.get().subject()).toUser());
+                } catch (UsernameNotFoundException e) {
+                    reject(response, "User no longer exists");
+                    return;
+                }
                 UsernamePasswordAuthenticationToken authToken =
                         new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                 SecurityContextHolder.getContext().setAuthentication(authToken);
@@ -45,4 +66,10 @@ public class JwtRequestFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
 
     }
-}
\ No newline at end of file
+
+    private void reject(HttpServletResponse response, String message) throws IOException {
+        response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+        response.setContentType("text/plain;charset=UTF-8");
+        response.getWriter().write(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.datepeice.emonotes.security;
+
+import io.jsonwebtoken.Claims;
+
+import java.time.Instant;
+
+public record VerifiedToken(String subject, Instant expiresAt, Claims claims) {
+}
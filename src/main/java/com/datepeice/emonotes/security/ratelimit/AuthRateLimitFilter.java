@@ -0,0 +1,194 @@
+package com.datepeice.emonotes.security.ratelimit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+// Отсекает перебор на /api/auth/** до BCrypt, TOTP и запросов в БД
+@Component
+public class AuthRateLimitFilter extends OncePerRequestFilter {
+    public AuthRateLimitFilter(RateLimitProperties properties, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+    }
+
+    private final RateLimitProperties properties;
+    private final ObjectMapper objectMapper;
+    private final TokenBucketRateLimiter limiter = new TokenBucketRateLimiter();
+
+    private static final String AUTH_PREFIX = "/api/auth/";
+    private static final String UNLISTED = "unlisted";
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || !path(request).startsWith(AUTH_PREFIX);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        String path = path(request);
+        var match = properties.getEndpoints().entrySet().stream()
+                .filter(entry -> path.equals(entry.getValue().getPath()))
+                .findFirst();
+        long now = System.nanoTime();
+        if (match.isEmpty()) {
+            long waitNanos = acquire(UNLISTED + "|ip:" + request.getRemoteAddr(), properties.getUnlistedPerIp(), now);
+            if (waitNanos > 0) {
+                reject(response, waitNanos);
+                return;
+            }
+            filterChain.doFilter(request, response);
+            return;
+        }
+        String name = match.get().getKey();
+        RateLimitProperties.Endpoint endpoint = match.get().getValue();
+
+        long waitNanos = acquire(name + "|ip:" + request.getRemoteAddr(), endpoint.getPerIp(), now);
+        if (waitNanos > 0) {
+            reject(response, waitNanos);
+            return;
+        }
+
+        HttpServletRequest forwarded = request;
+        if (endpoint.getPerUsername().getCapacity() > 0) {
+            byte[] body = request.getInputStream().readNBytes(properties.getMaxBodyBytes() + 1);
+            if (body.length > properties.getMaxBodyBytes()) {
+                response.setStatus(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
+                return;
+            }
+            String username = extractUsername(body);
+            if (username != null) {
+                waitNanos = acquire(name + "|user:" + username, endpoint.getPerUsername(), now);
+                if (waitNanos > 0) {
+                    reject(response, waitNanos);
+                    return;
+                }
+            }
+            forwarded = new CachedBodyRequest(request, body);
+        }
+        filterChain.doFilter(forwarded, response);
+    }
+
+    @Scheduled(fixedDelayString = "${emonotes.rate-limit.sweep-interval-ms:60000}")
+    public void evictIdleBuckets() {
+        limiter.evictIdle(properties.getIdleExpiry(), System.nanoTime());
+    }
+
+    // Путь так, как его увидит маршрутизация MVC: контейнер уже декодировал %xx, убрал ;параметры и //.
+    // Сырой getRequestURI пропустил бы /api/auth/sign%69n мимо лимитов, хотя контроллер его обработает
+    static String path(HttpServletRequest request) {
+        String path = request.getServletPath();
+        if (request.getPathInfo() != null) {
+            path += request.getPathInfo();
+        }
+        return path.length() > 1 && path.endsWith("/") ? path.substring(0, path.length() - 1) : path;
+    }
+
+    private long acquire(String key, RateLimitProperties.Limit limit, long now) {
+        if (limit.getCapacity() <= 0) {
+            return 0;
+        }
+        return limiter.tryAcquire(key, limit, now);
+    }
+
+    private String extractUsername(byte[] body) {
+        if (body.length == 0) {
+            return null;
+        }
+        try {
+            JsonNode username = objectMapper.readTree(body).get("username");
+            return username != null && username.isTextual() ? username.asText().toLowerCase(Locale.ROOT) : null;
+        } catch (IOException e) {
+            // Невалидный JSON всё равно отклонит контроллер, лимит по IP уже применён
+            return null;
+        }
+    }
+
+    private void reject(HttpServletResponse response, long waitNanos) throws IOException {
+        long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        response.setStatus(429);
+        response.setHeader("Retry-After", String.valueOf(retryAfter));
+        response.setContentType("text/plain;charset=UTF-8");
+        response.getWriter().write("Too many requests, try again later");
+    }
+
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        private final byte[] body;
+
+        @Override
+        public ServletInputStream getInputStream() {
+            var input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // Тело уже целиком в памяти: данные доступны сразу, и сразу же прочитаны до конца
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    try {
+                        if (!isFinished()) {
+                            readListener.onDataAvailable();
+                        }
+                        readListener.onAllDataRead();
+                    } catch (IOException e) {
+                        readListener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return input.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.datepeice.emonotes.security.ratelimit;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "emonotes.rate-limit")
+public class RateLimitProperties {
+    private boolean enabled = true;
+    // Бакет, полностью восстановившийся и не трогавшийся это время, удаляется
+    private Duration idleExpiry = Duration.ofMinutes(10);
+    private int maxBodyBytes = 16 * 1024;
+    private Map<String, Endpoint> endpoints = new LinkedHashMap<>();
+    // Для путей /api/auth/*, не перечисленных в endpoints: новая или переименованная ручка не остаётся без лимита
+    private Limit unlistedPerIp = new Limit(20, Duration.ofMinutes(1));
+
+    @Data
+    public static class Endpoint {
+        private String path;
+        private Limit perIp = new Limit();
+        private Limit perUsername = new Limit();
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Limit {
+        // capacity запросов за period, с возможностью выбрать их все разом; 0 отключает лимит
+        private int capacity;
+        private Duration period = Duration.ofMinutes(1);
+    }
+}
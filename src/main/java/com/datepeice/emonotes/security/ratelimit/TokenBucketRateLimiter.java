@@ -0,0 +1,42 @@
+package com.datepeice.emonotes.security.ratelimit;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Token bucket в форме GCRA: состояние бакета — одно "теоретическое время прибытия", обновляемое через CAS
+public class TokenBucketRateLimiter {
+    private final ConcurrentMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    // 0, если запрос пропущен, иначе сколько наносекунд ждать до следующего токена
+    public long tryAcquire(String key, RateLimitProperties.Limit limit, long nowNanos) {
+        long period = limit.getPeriod().toNanos();
+        long interval = period / limit.getCapacity();
+
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(nowNanos));
+        }
+        while (true) {
+            long tat = bucket.get();
+            long newTat = Math.max(tat, nowNanos) + interval;
+            long waitNanos = newTat - period - nowNanos;
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            if (bucket.compareAndSet(tat, newTat)) {
+                return 0;
+            }
+        }
+    }
+
+    public void evictIdle(Duration idleExpiry, long nowNanos) {
+        long threshold = nowNanos - idleExpiry.toNanos();
+        buckets.entrySet().removeIf(entry -> entry.getValue().get() < threshold);
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+}
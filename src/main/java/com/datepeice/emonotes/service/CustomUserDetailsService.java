@@ -1,6 +1,10 @@
 package com.datepeice.emonotes.service;
 
+import com.datepeice.emonotes.datasource.ReadYourWrites;
+import com.datepeice.emonotes.entity.User;
 import com.datepeice.emonotes.repository.UserRepository;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -8,15 +12,53 @@ import org.springframework.stereotype.Service;
 
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
-    CustomUserDetailsService(UserRepository userRepository) {
+    CustomUserDetailsService(UserRepository userRepository, ReadYourWrites readYourWrites) {
         this.userRepository = userRepository;
+        this.readYourWrites = readYourWrites;
     }
 
+    public static final String PRINCIPAL_CACHE = "principals";
+
     private UserRepository userRepository;
+    private final ReadYourWrites readYourWrites;
 
+    // Проверка пароля (signin, Basic) идёт сюда и всегда читает базу: после сброса пароля или смены MFA
+    // другой инстанс не должен принимать старые учётные данные из своего кэша
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        return userRepository.findByUsername(username)
+        return findUser(username);
+    }
+
+    // JWT уже проверен, нужен только principal: вызывается на каждый запрос, поэтому кэшируется
+    // (размер и TTL в spring.cache.caffeine.spec). В кэше неизменяемый снимок без пароля и MFA-секрета
+    @Cacheable(cacheNames = PRINCIPAL_CACHE, key = "#username")
+    public CachedPrincipal loadPrincipal(String username) throws UsernameNotFoundException {
+        return CachedPrincipal.of(findUser(username));
+    }
+
+    // Каждый запрос получает свою копию User через toUser(): изменения в ней не попадают в кэш и в другие запросы
+    public record CachedPrincipal(Long id, String username, String roles) {
+        static CachedPrincipal of(User user) {
+            return new CachedPrincipal(user.getId(), user.getUsername(), user.getRoles());
+        }
+
+        public User toUser() {
+            var user = new User();
+            user.setId(id);
+            user.setUsername(username);
+            user.setRoles(roles);
+            return user;
+        }
+    }
+
+    // Вызывать после любого изменения пользователя, иначе до истечения TTL будет отдаваться старая копия
+    @CacheEvict(cacheNames = PRINCIPAL_CACHE, key = "#username")
+    public void evictPrincipal(String username) {
+    }
+
+    private User findUser(String username) {
+        // Контекст безопасности ещё пуст: маршрутизатору реплик нужно знать, чьё это чтение
+        return readYourWrites.withSubject(username, () -> userRepository.findByUsername(username))
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
     }
 }
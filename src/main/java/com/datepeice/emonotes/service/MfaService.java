@@ -1,11 +1,20 @@
 package com.datepeice.emonotes.service;
 
 import com.warrenstrange.googleauth.GoogleAuthenticator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.TimeUnit;
+
 @Service
 public class MfaService {
+    public MfaService(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
     private final GoogleAuthenticator gAuth = new GoogleAuthenticator();
+    private final MeterRegistry meterRegistry;
 
     public String generateSecret() {
         return gAuth.createCredentials().getKey();
@@ -19,6 +28,12 @@ public class MfaService {
     }
 
     public boolean verifyCode(String secret, int code) {
-        return gAuth.authorize(secret, code);
+        long start = System.nanoTime();
+        boolean valid = gAuth.authorize(secret, code);
+        Timer.builder("emonotes.mfa.verify")
+                .tag("result", valid ? "valid" : "invalid")
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return valid;
     }
 }
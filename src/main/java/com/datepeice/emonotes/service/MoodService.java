@@ -0,0 +1,83 @@
+package com.datepeice.emonotes.service;
+
+import com.datepeice.emonotes.dto.MoodDay;
+import com.datepeice.emonotes.dto.NoteCursor;
+import com.datepeice.emonotes.dto.NoteEmotionPage;
+import com.datepeice.emonotes.dto.NoteEmotionView;
+import com.datepeice.emonotes.emotion.Emotion;
+import com.datepeice.emonotes.emotion.EmotionStore;
+import com.datepeice.emonotes.entity.User;
+import com.datepeice.emonotes.exception.BadRequestException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Читает только mood_daily и note_emotions; свежие правки появляются после того, как их разметит пайплайн
+@Service
+public class MoodService {
+    public MoodService(EmotionStore emotionStore) {
+        this.emotionStore = emotionStore;
+    }
+
+    private final EmotionStore emotionStore;
+
+    private static final long MAX_HISTORY_DAYS = 366;
+
+    @Transactional(readOnly = true)
+    public List<MoodDay> history(User user, LocalDate from, LocalDate to) {
+        if (from.isAfter(to) || ChronoUnit.DAYS.between(from, to) >= MAX_HISTORY_DAYS) {
+            throw new BadRequestException("The range must be between 1 and " + MAX_HISTORY_DAYS + " days");
+        }
+        List<MoodDay> days = new ArrayList<>();
+        LocalDate current = null;
+        Map<String, Integer> emotions = new LinkedHashMap<>();
+        double valenceSum = 0;
+        // Строки отсортированы по дню: копим эмоции дня и закрываем его при смене даты
+        for (EmotionStore.RollupRow row : emotionStore.findRollup(user.getId(), from, to)) {
+            if (current != null && !current.equals(row.day())) {
+                days.add(toDay(current, emotions, valenceSum));
+                emotions = new LinkedHashMap<>();
+                valenceSum = 0;
+            }
+            current = row.day();
+            emotions.put(row.label(), row.noteCount());
+            valenceSum += row.valenceSum();
+        }
+        if (current != null) {
+            days.add(toDay(current, emotions, valenceSum));
+        }
+        return days;
+    }
+
+    @Transactional(readOnly = true)
+    public NoteEmotionPage notesByEmotion(User user, String emotion, NoteCursor before, int limit) {
+        String label;
+        try {
+            label = Emotion.fromLabel(emotion).label();
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Unknown emotion: " + emotion);
+        }
+        List<NoteEmotionView> notes = before == null
+                ? emotionStore.findByEmotion(user.getId(), label, null, null, limit)
+                : emotionStore.findByEmotion(user.getId(), label, before.getCreatedAt(), before.getId(), limit);
+        String nextCursor = notes.size() == limit
+                ? new NoteCursor(notes.getLast().getCreatedAt(), notes.getLast().getId()).encode()
+                : null;
+        return new NoteEmotionPage(notes, nextCursor);
+    }
+
+    private static MoodDay toDay(LocalDate day, Map<String, Integer> emotions, double valenceSum) {
+        int noteCount = emotions.values().stream().mapToInt(Integer::intValue).sum();
+        String dominant = emotions.entrySet().stream()
+                .max(Map.Entry.comparingByValue())
+                .map(Map.Entry::getKey)
+                .orElse(Emotion.NEUTRAL.label());
+        return new MoodDay(day, noteCount, noteCount > 0 ? valenceSum / noteCount : 0, dominant, emotions);
+    }
+}
@@ -0,0 +1,56 @@
+package com.datepeice.emonotes.service;
+
+import com.datepeice.emonotes.entity.NoteContentConverter;
+import com.datepeice.emonotes.repository.NoteRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+// Переносит старые заметки из TEXT-столбца content в сжатый content_data небольшими партиями
+@Component
+@ConditionalOnProperty(name = "emonotes.storage.content-migration.enabled", havingValue = "true", matchIfMissing = true)
+public class NoteContentMigrator {
+    NoteContentMigrator(NoteRepository noteRepository, TransactionTemplate transactionTemplate,
+                        @Value("${emonotes.storage.content-migration.batch-size:200}") int batchSize) {
+        this.noteRepository = noteRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(NoteContentMigrator.class);
+
+    private final NoteRepository noteRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final NoteContentConverter converter = new NoteContentConverter();
+    private volatile boolean finished;
+
+    @Scheduled(initialDelayString = "${emonotes.storage.content-migration.initial-delay-ms:30000}",
+            fixedDelayString = "${emonotes.storage.content-migration.interval-ms:5000}")
+    public void migrateBatch() {
+        if (finished) {
+            return;
+        }
+        Integer migrated = transactionTemplate.execute(status -> {
+            List<Object[]> rows = noteRepository.findLegacyContent(batchSize);
+            int count = 0;
+            for (Object[] row : rows) {
+                Long id = ((Number) row[0]).longValue();
+                count += noteRepository.moveToContentData(id, converter.convertToDatabaseColumn((String) row[1]));
+            }
+            return rows.isEmpty() ? -1 : count;
+        });
+        if (migrated != null && migrated < 0) {
+            finished = true;
+            log.info("Note content migration to content_data is complete");
+        } else if (migrated != null && migrated > 0) {
+            log.debug("Moved {} notes to compressed content_data", migrated);
+        }
+    }
+}
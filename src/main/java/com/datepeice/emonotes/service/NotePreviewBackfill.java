@@ -0,0 +1,59 @@
+package com.datepeice.emonotes.service;
+
+import com.datepeice.emonotes.entity.Note;
+import com.datepeice.emonotes.repository.NoteRepository;
+import com.datepeice.emonotes.util.MarkdownText;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+// Заполняет preview у заметок, созданных до появления столбца
+@Component
+@ConditionalOnProperty(name = "emonotes.storage.preview-backfill.enabled", havingValue = "true", matchIfMissing = true)
+public class NotePreviewBackfill {
+    NotePreviewBackfill(NoteRepository noteRepository, TransactionTemplate transactionTemplate,
+                        @Value("${emonotes.storage.preview-backfill.batch-size:200}") int batchSize) {
+        this.noteRepository = noteRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(NotePreviewBackfill.class);
+
+    private final NoteRepository noteRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private volatile boolean finished;
+
+    @Scheduled(initialDelayString = "${emonotes.storage.preview-backfill.initial-delay-ms:10000}",
+            fixedDelayString = "${emonotes.storage.preview-backfill.interval-ms:2000}")
+    public void backfillBatch() {
+        if (finished) {
+            return;
+        }
+        Integer filled = transactionTemplate.execute(status -> {
+            List<Long> ids = noteRepository.findIdsWithoutPreview(batchSize);
+            if (ids.isEmpty()) {
+                return -1;
+            }
+            int count = 0;
+            for (Note note : noteRepository.findAllById(ids)) {
+                // Натив, чтобы не увеличивать @Version: смысл заметки не меняется
+                count += noteRepository.updatePreview(note.getId(), MarkdownText.preview(note.getContent(), Note.PREVIEW_LENGTH));
+            }
+            return count;
+        });
+        if (filled != null && filled < 0) {
+            finished = true;
+            log.info("Note preview backfill is complete");
+        } else if (filled != null && filled > 0) {
+            log.debug("Filled previews for {} notes", filled);
+        }
+    }
+}
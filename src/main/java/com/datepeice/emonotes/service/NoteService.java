@@ -0,0 +1,308 @@
+package com.datepeice.emonotes.service;
+
+import com.datepeice.emonotes.cache.NoteCache;
+import com.datepeice.emonotes.dto.NoteBatchRequest;
+import com.datepeice.emonotes.dto.NoteBatchResult;
+import com.datepeice.emonotes.dto.NoteBody;
+import com.datepeice.emonotes.dto.NoteChange;
+import com.datepeice.emonotes.dto.NoteChanges;
+import com.datepeice.emonotes.dto.NoteCursor;
+import com.datepeice.emonotes.dto.NoteListing;
+import com.datepeice.emonotes.dto.NotePatch;
+import com.datepeice.emonotes.dto.NotePreview;
+import com.datepeice.emonotes.dto.NoteSyncToken;
+import com.datepeice.emonotes.entity.Note;
+import com.datepeice.emonotes.entity.NoteContentConverter;
+import com.datepeice.emonotes.entity.User;
+import com.datepeice.emonotes.events.NoteChangePublisher;
+import com.datepeice.emonotes.exception.BadRequestException;
+import com.datepeice.emonotes.exception.PreconditionFailedException;
+import com.datepeice.emonotes.exception.ResourceNotFoundException;
+import com.datepeice.emonotes.repository.NoteRepository;
+import com.datepeice.emonotes.repository.UserRepository;
+import com.datepeice.emonotes.search.NoteSearchIndex;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.LongPredicate;
+import java.util.stream.Collectors;
+
+@Service
+public class NoteService {
+    NoteService(NoteRepository noteRepository, UserRepository userRepository, NoteSearchIndex noteSearchIndex,
+                NoteChangePublisher changePublisher, NoteCache noteCache) {
+        this.noteRepository = noteRepository;
+        this.userRepository = userRepository;
+        this.noteSearchIndex = noteSearchIndex;
+        this.changePublisher = changePublisher;
+        this.noteCache = noteCache;
+    }
+
+    private final NoteRepository noteRepository;
+    private final UserRepository userRepository;
+    private final NoteSearchIndex noteSearchIndex;
+    private final NoteChangePublisher changePublisher;
+    private final NoteCache noteCache;
+
+    private static final NoteContentConverter CONTENT_CONVERTER = new NoteContentConverter();
+
+    @Transactional(readOnly = true)
+    public long notesRevision(User user) {
+        return userRepository.findNotesRevision(user.getId());
+    }
+
+    // Ревизия и страница в одной транзакции, то есть с одного источника: с разных реплик ETag мог бы
+    // описать более свежий список, чем отданный. unchanged проверяется до выборки страницы
+    @Transactional(readOnly = true)
+    public NoteListing listing(User user, NoteCursor after, int limit, LongPredicate unchanged) {
+        // Ревизию читаем до списка: если запись проскочит между запросами, следующий GET получит 200, а не 304
+        long revision = userRepository.findNotesRevision(user.getId());
+        if (unchanged.test(revision)) {
+            return new NoteListing(revision, null);
+        }
+        return new NoteListing(revision, previewPage(user, after, limit));
+    }
+
+    // after == null - первая страница
+    @Transactional(readOnly = true)
+    public List<NotePreview> previewPage(User user, NoteCursor after, int limit) {
+        List<Object[]> rows = after == null
+                ? noteRepository.findPreviewPage(user.getId(), limit)
+                : noteRepository.findPreviewPageAfter(user.getId(), after.getCreatedAt(), after.getId(), limit);
+        return rows.stream().map(NoteService::toPreview).toList();
+    }
+
+    @Transactional
+    public Note create(NoteBody noteBody, User user) {
+        long revision = changePublisher.nextRevision(user.getId());
+        var note = new Note();
+        note.setTitle(noteBody.getTitle());
+        note.setContent(noteBody.getContent());
+        note.setUser(user);
+        note.setChangeRevision(revision);
+        Note savedNote = noteRepository.saveAndFlush(note);
+        noteSearchIndex.index(savedNote);
+        changePublisher.publish(user.getId(), revision, NoteChange.of(NoteChange.CREATED, savedNote));
+        return savedNote;
+    }
+
+    // since - токен из NotePage.syncToken или прошлого ответа; reset=true - токен устарел, нужен полный список
+    @Transactional(readOnly = true)
+    public NoteChanges changes(User user, NoteSyncToken since, int limit) {
+        // Ревизию читаем первой: всё, что закоммитится позже, получит ревизию больше и попадёт в следующий sync
+        long current = userRepository.findNotesRevision(user.getId());
+        long afterId = since.getAfterId() != null ? since.getAfterId() : Long.MAX_VALUE;
+        List<Object[]> rows = since.getRevision() > current
+                ? List.of()
+                : noteRepository.findChangesAfter(user.getId(), since.getRevision(), afterId, current, limit + 1);
+        // Границу очистки проверяем после выборки: очистка, успевшая между ними, тоже даст reset
+        if (since.getRevision() > current || since.getRevision() < userRepository.findNotesPurgedRevision(user.getId())) {
+            return new NoteChanges(List.of(), NoteSyncToken.at(current).encode(), false, true);
+        }
+        boolean hasMore = rows.size() > limit;
+        if (hasMore) {
+            rows = rows.subList(0, limit);
+        }
+
+        List<NoteChange> changes = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            Long id = ((Number) row[0]).longValue();
+            changes.add(Boolean.TRUE.equals(row[6])
+                    ? NoteChange.deleted(id)
+                    : new NoteChange(NoteChange.UPDATED, id, (String) row[1], (String) row[2],
+                    toLocalDateTime(row[3]), ((Number) row[4]).longValue()));
+        }
+        // Внутри одной ревизии (батч) продолжаем с id, иначе - со всей прочитанной ревизии
+        NoteSyncToken next = hasMore
+                ? new NoteSyncToken(((Number) rows.get(rows.size() - 1)[5]).longValue(), changes.get(changes.size() - 1).getId())
+                : NoteSyncToken.at(current);
+        return new NoteChanges(changes, next.encode(), hasMore, false);
+    }
+
+    // expectedVersion == null - клиент прислал If-Match: * и сам выбрал last-write-wins; без заголовка контроллер отвечает 428.
+    // Заметку не читаем: замена целиком, владелец и версия проверяются в WHERE одного UPDATE
+    @Transactional
+    public Note update(Long id, NoteBody noteBody, Long expectedVersion, User user) {
+        long revision = changePublisher.nextRevision(user.getId());
+        var note = new Note();
+        note.setId(id);
+        note.setUser(user);
+        note.setTitle(noteBody.getTitle());
+        note.setContent(noteBody.getContent());
+        note.setChangeRevision(revision);
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> updated = noteRepository.updateOwned(id, user.getId(), note.getTitle(),
+                CONTENT_CONVERTER.convertToDatabaseColumn(note.getContent()), note.getPreview(),
+                expectedVersion, revision, now);
+        if (updated.isEmpty()) {
+            // Второй запрос только на пути ошибки: отличить конфликт версий от чужой или удалённой заметки
+            if (expectedVersion != null && noteRepository.existsOwned(id, user.getId())) {
+                throw new PreconditionFailedException("Note was modified, reload it and retry");
+            }
+            throw new ResourceNotFoundException("Note not found");
+        }
+        note.setVersion(((Number) updated.get(0)[0]).longValue());
+        note.setCreatedAt(toLocalDateTime(updated.get(0)[1]));
+        note.setUpdatedAt(now);
+
+        noteSearchIndex.index(note);
+        noteCache.evictAfterCommit(List.of(id));
+        changePublisher.publish(user.getId(), revision, NoteChange.of(NoteChange.UPDATED, note));
+        return note;
+    }
+
+    @Transactional
+    public Note patch(Long id, NotePatch patch, Long expectedVersion, User user) {
+        var note = loadOwned(id, user);
+        Long baseVersion = expectedVersion != null ? expectedVersion : patch.getBaseVersion();
+        checkVersion(note, baseVersion);
+
+        if (patch.getContentEdits() != null && !patch.getContentEdits().isEmpty()) {
+            if (patch.getContent() != null) {
+                throw new BadRequestException("Send either content or contentEdits, not both");
+            }
+            if (baseVersion == null) {
+                throw new BadRequestException("contentEdits require baseVersion or If-Match");
+            }
+            note.setContent(applyEdits(note.getContent(), patch.getContentEdits()));
+        } else if (patch.getContent() != null) {
+            note.setContent(patch.getContent());
+        }
+        if (patch.getTitle() != null) {
+            note.setTitle(patch.getTitle());
+        }
+        return flush(note);
+    }
+
+    // Один UPDATE по id и владельцу; 0 строк откатывает и поднятую ревизию
+    @Transactional
+    public void delete(Long id, User user) {
+        long revision = changePublisher.nextRevision(user.getId());
+        if (noteRepository.markDeleted(List.of(id), user.getId(), revision, LocalDateTime.now()).isEmpty()) {
+            throw new ResourceNotFoundException("Note not found");
+        }
+        noteSearchIndex.remove(id);
+        noteCache.evictAfterCommit(List.of(id));
+        changePublisher.publish(user.getId(), revision, NoteChange.deleted(id));
+    }
+
+    // Всё в одной транзакции: любая чужая заметка или конфликт версий откатывает весь батч
+    @Transactional
+    public NoteBatchResult batch(NoteBatchRequest request, User user) {
+        long revision = changePublisher.nextRevision(user.getId());
+        List<Note> created = request.getCreate().stream()
+                .map(body -> {
+                    var note = new Note();
+                    note.setTitle(body.getTitle());
+                    note.setContent(body.getContent());
+                    note.setUser(user);
+                    note.setChangeRevision(revision);
+                    return note;
+                })
+                .toList();
+        noteRepository.saveAll(created);
+
+        List<Note> updated = new ArrayList<>();
+        if (!request.getUpdate().isEmpty()) {
+            Map<Long, Note> existing = noteRepository.findAllById(
+                            request.getUpdate().stream().map(NoteBatchRequest.Update::getId).toList())
+                    .stream()
+                    .collect(Collectors.toMap(Note::getId, Function.identity()));
+            for (NoteBatchRequest.Update change : request.getUpdate()) {
+                Note note = existing.get(change.getId());
+                // Чужая заметка неотличима от отсутствующей, как и в loadOwned
+                if (note == null || note.isDeleted() || !note.getUser().getId().equals(user.getId())) {
+                    throw new ResourceNotFoundException("Note not found: " + change.getId());
+                }
+                checkVersion(note, change.getVersion());
+                if (change.getTitle() != null) {
+                    note.setTitle(change.getTitle());
+                }
+                if (change.getContent() != null) {
+                    note.setContent(change.getContent());
+                }
+                note.setChangeRevision(revision);
+                updated.add(note);
+            }
+        }
+
+        List<Long> deleted = List.of();
+        if (!request.getDelete().isEmpty()) {
+            deleted = noteRepository.markDeleted(request.getDelete(), user.getId(), revision, LocalDateTime.now());
+        }
+
+        // INSERT/UPDATE уходят JDBC-батчами (hibernate.jdbc.batch_size, order_inserts/order_updates)
+        noteRepository.flush();
+        List<Note> indexed = new ArrayList<>(created);
+        indexed.addAll(updated);
+        noteSearchIndex.indexAll(indexed);
+        noteSearchIndex.removeAll(deleted);
+        List<Long> changed = new ArrayList<>(deleted);
+        updated.forEach(note -> changed.add(note.getId()));
+        noteCache.evictAfterCommit(changed);
+        // Батч может затронуть тысячи заметок - подписчикам проще перечитать список
+        changePublisher.publish(user.getId(), revision, NoteChange.reset());
+
+        return new NoteBatchResult(created.stream().map(Note::getId).toList(), updated.size(), deleted.size());
+    }
+
+    static String applyEdits(String content, List<NotePatch.TextEdit> edits) {
+        var text = new StringBuilder(content == null ? "" : content);
+        for (NotePatch.TextEdit edit : edits) {
+            // Сравниваем с остатком строки, а не offset + deleteCount: сумма может переполнить int
+            if (edit.getOffset() < 0 || edit.getDeleteCount() < 0 || edit.getOffset() > text.length()
+                    || edit.getDeleteCount() > text.length() - edit.getOffset()) {
+                throw new BadRequestException("Content edit is out of bounds");
+            }
+            text.replace(edit.getOffset(), edit.getOffset() + edit.getDeleteCount(),
+                    edit.getInsert() == null ? "" : edit.getInsert());
+        }
+        return text.toString();
+    }
+
+    private static NotePreview toPreview(Object[] row) {
+        return new NotePreview(
+                ((Number) row[0]).longValue(),
+                (String) row[1],
+                (String) row[2],
+                toLocalDateTime(row[3])
+        );
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime();
+        }
+        return (LocalDateTime) value;
+    }
+
+    // Чужая заметка для клиента выглядит так же, как отсутствующая
+    private Note loadOwned(Long id, User user) {
+        return noteRepository.findOwned(id, user.getId())
+                .orElseThrow(() -> new ResourceNotFoundException("Note not found"));
+    }
+
+    private static void checkVersion(Note note, Long expectedVersion) {
+        if (expectedVersion != null && expectedVersion != note.getVersion()) {
+            throw new PreconditionFailedException("Note was modified, reload it and retry");
+        }
+    }
+
+    // flush, чтобы @Version увеличилась до того, как версию отдадут клиенту в ETag
+    private Note flush(Note note) {
+        long revision = changePublisher.nextRevision(note.getUser().getId());
+        note.setChangeRevision(revision);
+        Note saved = noteRepository.saveAndFlush(note);
+        noteSearchIndex.index(saved);
+        noteCache.evictAfterCommit(List.of(saved.getId()));
+        changePublisher.publish(saved.getUser().getId(), revision, NoteChange.of(NoteChange.UPDATED, saved));
+        return saved;
+    }
+}
@@ -0,0 +1,65 @@
+package com.datepeice.emonotes.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+// Удаляет надгробия старше срока хранения; клиент с токеном старше вычищенной ревизии получит reset в /changes
+@Component
+@ConditionalOnProperty(name = "emonotes.sync.tombstone-purge.enabled", havingValue = "true", matchIfMissing = true)
+public class NoteTombstonePurge {
+    NoteTombstonePurge(JdbcTemplate jdbcTemplate,
+                       @Value("${emonotes.sync.tombstone-retention:30d}") Duration retention,
+                       @Value("${emonotes.sync.tombstone-purge.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.retention = retention;
+        this.batchSize = batchSize;
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(NoteTombstonePurge.class);
+
+    // Одним запросом: удалить пачку и поднять users.notes_purged_revision до ревизий удалённых строк
+    private static final String PURGE_BATCH = """
+            WITH purged AS (
+                DELETE FROM notes WHERE id IN (
+                    SELECT id FROM notes WHERE deleted_at < ? ORDER BY deleted_at LIMIT ?
+                )
+                RETURNING user_id, change_revision
+            ), per_user AS (
+                SELECT user_id, MAX(change_revision) AS revision, COUNT(*) AS purged FROM purged GROUP BY user_id
+            ), advanced AS (
+                UPDATE users u SET notes_purged_revision = GREATEST(u.notes_purged_revision, p.revision)
+                FROM per_user p WHERE u.id = p.user_id
+            )
+            SELECT COALESCE(SUM(purged), 0) FROM per_user
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration retention;
+    private final int batchSize;
+
+    @Scheduled(initialDelayString = "${emonotes.sync.tombstone-purge.initial-delay-ms:60000}",
+            fixedDelayString = "${emonotes.sync.tombstone-purge.interval-ms:3600000}")
+    public void purge() {
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minus(retention));
+        long total = 0;
+        long purged;
+        do {
+            // Каждая пачка - отдельная транзакция автокоммита, блокировки не копятся
+            Long count = jdbcTemplate.queryForObject(PURGE_BATCH, Long.class, cutoff, batchSize);
+            purged = count != null ? count : 0;
+            total += purged;
+        } while (purged == batchSize);
+        if (total > 0) {
+            log.info("Purged {} note tombstones older than {}", total, retention);
+        }
+    }
+}
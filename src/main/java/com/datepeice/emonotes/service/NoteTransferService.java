@@ -0,0 +1,130 @@
+package com.datepeice.emonotes.service;
+
+import com.datepeice.emonotes.dto.NoteChange;
+import com.datepeice.emonotes.dto.NoteExport;
+import com.datepeice.emonotes.entity.Note;
+import com.datepeice.emonotes.entity.User;
+import com.datepeice.emonotes.events.NoteChangePublisher;
+import com.datepeice.emonotes.exception.BadRequestException;
+import com.datepeice.emonotes.repository.NoteRepository;
+import com.datepeice.emonotes.search.NoteSearchIndex;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Экспорт и импорт всех заметок пользователя потоком NDJSON: в памяти не больше одной пачки заметок
+@Service
+public class NoteTransferService {
+    NoteTransferService(NoteRepository noteRepository, NoteChangePublisher changePublisher, NoteSearchIndex noteSearchIndex,
+                        EntityManager entityManager, JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.noteRepository = noteRepository;
+        this.changePublisher = changePublisher;
+        this.noteSearchIndex = noteSearchIndex;
+        this.entityManager = entityManager;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.lineWriter = objectMapper.writerFor(NoteExport.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    private static final int IMPORT_CHUNK_SIZE = 500;
+
+    private final NoteRepository noteRepository;
+    private final NoteChangePublisher changePublisher;
+    private final NoteSearchIndex noteSearchIndex;
+    private final EntityManager entityManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter lineWriter;
+
+    @Transactional(readOnly = true)
+    public void exportNdjson(Long userId, OutputStream output) throws IOException {
+        try (Stream<Note> notes = noteRepository.streamAllByUserId(userId);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(output)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            notes.forEach(note -> {
+                try {
+                    lineWriter.writeValue(generator, new NoteExport(note.getTitle(), note.getContent(), note.getCreatedAt()));
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                // Отпускаем уже записанную заметку, чтобы контекст персистентности не рос
+                entityManager.detach(note);
+            });
+            generator.flush();
+        }
+    }
+
+    // Одна транзакция на весь импорт; каждые IMPORT_CHUNK_SIZE строк - flush батчем и очистка контекста
+    @Transactional
+    public int importNdjson(InputStream input, User user) throws IOException {
+        long revision = changePublisher.nextRevision(user.getId());
+        int imported = 0;
+        try (MappingIterator<NoteExport> lines = objectMapper.readerFor(NoteExport.class).readValues(input)) {
+            List<NoteExport> chunk = new ArrayList<>(IMPORT_CHUNK_SIZE);
+            while (lines.hasNextValue()) {
+                chunk.add(lines.nextValue());
+                if (chunk.size() == IMPORT_CHUNK_SIZE) {
+                    imported += importChunk(chunk, user, revision);
+                    chunk.clear();
+                }
+            }
+            imported += importChunk(chunk, user, revision);
+        } catch (JsonProcessingException e) {
+            int line = e.getLocation() != null ? e.getLocation().getLineNr() : -1;
+            throw new BadRequestException("Malformed NDJSON at line " + line);
+        }
+        if (imported > 0) {
+            changePublisher.publish(user.getId(), revision, NoteChange.reset());
+        }
+        return imported;
+    }
+
+    private int importChunk(List<NoteExport> chunk, User user, long revision) {
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+        List<Note> notes = new ArrayList<>(chunk.size());
+        for (NoteExport line : chunk) {
+            var note = new Note();
+            note.setTitle(line.getTitle());
+            note.setContent(line.getContent());
+            note.setUser(user);
+            note.setChangeRevision(revision);
+            notes.add(note);
+        }
+        noteRepository.saveAll(notes);
+        noteRepository.flush();
+        noteSearchIndex.indexAll(notes);
+
+        // @CreatedDate проставляет текущее время, исходные даты возвращаем отдельным батчем
+        List<Object[]> createdAt = new ArrayList<>();
+        for (int i = 0; i < notes.size(); i++) {
+            if (chunk.get(i).getCreatedAt() != null) {
+                createdAt.add(new Object[]{Timestamp.valueOf(chunk.get(i).getCreatedAt()), notes.get(i).getId()});
+            }
+        }
+        if (!createdAt.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE notes SET created_at = ? WHERE id = ?", createdAt);
+        }
+        entityManager.clear();
+        return notes.size();
+    }
+}
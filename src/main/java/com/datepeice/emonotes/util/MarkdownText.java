@@ -0,0 +1,52 @@
+package com.datepeice.emonotes.util;
+
+import java.util.regex.Pattern;
+
+public final class MarkdownText {
+    private static final Pattern INLINE_SPACE = Pattern.compile("[ \\t\\x0B\\f]+");
+    private static final Pattern LINE_EDGE_SPACE = Pattern.compile("(?m)^ +| +$");
+    private static final Pattern BLANK_LINES = Pattern.compile("\\n{3,}");
+    private static final Pattern BLOCK_MARKER = Pattern.compile("(?m)^(?:>\\s?)*(?:#{1,6}\\s+|[-*+]\\s+(?:\\[[ xX]]\\s+)?|\\d+[.)]\\s+)?");
+    private static final Pattern LINK = Pattern.compile("!?\\[([^\\]]*)]\\([^)]*\\)");
+    private static final Pattern EMPHASIS = Pattern.compile("(?<![\\\\\\w])(\\*\\*|__|~~|\\*|_|`)(?=\\S)(.+?)(?<=\\S)(?<!\\\\)\\1(?!\\w)");
+    private static final Pattern ESCAPE = Pattern.compile("\\\\([\\\\`*_{}\\[\\]()#+\\-.!>~|])");
+
+    private MarkdownText() {
+    }
+
+    // Редактор сохраняет Markdown (turndown): для поиска и эмоций убираем разметку, строки оставляем
+    public static String toPlainText(String markdown) {
+        String text = normalize(markdown);
+        if (text.isEmpty()) {
+            return "";
+        }
+        text = BLOCK_MARKER.matcher(text).replaceAll("");
+        text = LINK.matcher(text).replaceAll("$1");
+        text = EMPHASIS.matcher(text).replaceAll("$2");
+        text = ESCAPE.matcher(text).replaceAll("$1");
+        return normalize(text);
+    }
+
+    // Превью для дашборда остаётся Markdown - его рендерит ReactMarkdown; режем по границе слова
+    public static String preview(String markdown, int maxLength) {
+        String text = normalize(markdown);
+        if (text.length() <= maxLength) {
+            return text;
+        }
+        int cut = Math.max(text.lastIndexOf(' ', maxLength), text.lastIndexOf('\n', maxLength));
+        if (cut < maxLength / 2) {
+            cut = maxLength; // одно очень длинное слово - режем как есть
+        }
+        return text.substring(0, cut).stripTrailing() + "...";
+    }
+
+    private static String normalize(String markdown) {
+        if (markdown == null || markdown.isEmpty()) {
+            return "";
+        }
+        String text = markdown.replace("\r\n", "\n").replace('\r', '\n').replace(' ', ' ');
+        text = INLINE_SPACE.matcher(text).replaceAll(" ");
+        text = LINE_EDGE_SPACE.matcher(text).replaceAll("");
+        return BLANK_LINES.matcher(text).replaceAll("\n\n").strip();
+    }
+}
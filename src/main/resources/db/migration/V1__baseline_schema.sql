@@ -0,0 +1,19 @@
+-- The schema ddl-auto=update created before Flyway took over: users and notes with identity ids and TEXT content.
+-- Existing databases already look like this; they are baselined at this version (spring.flyway.baseline-on-migrate)
+-- and start from V2. Only empty databases run this script.
+
+CREATE TABLE users (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username   VARCHAR(255),
+    password   VARCHAR(255),
+    roles      VARCHAR(255),
+    mfa_secret VARCHAR(255)
+);
+
+CREATE TABLE notes (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id    BIGINT NOT NULL CONSTRAINT fk_notes_user REFERENCES users (id),
+    title      VARCHAR(255),
+    content    TEXT,
+    created_at TIMESTAMP(6)
+);
@@ -0,0 +1,35 @@
+-- Everything notes gained on top of the baseline. IF NOT EXISTS throughout: databases that ran an intermediate
+-- build under ddl-auto=update plus schema.sql may already have some of these objects.
+
+-- Per-user change counter (ETag, SSE event id, sync token) and the revision below which tombstones were purged
+ALTER TABLE users
+    ADD COLUMN IF NOT EXISTS notes_revision        BIGINT DEFAULT 0 NOT NULL,
+    ADD COLUMN IF NOT EXISTS notes_purged_revision BIGINT DEFAULT 0 NOT NULL;
+
+-- content stays for rows written before compression; NoteContentMigrator moves it to content_data in the background.
+-- preview is filled by NotePreviewBackfill
+ALTER TABLE notes
+    ADD COLUMN IF NOT EXISTS content_data    BYTEA,
+    ADD COLUMN IF NOT EXISTS preview         VARCHAR(203),
+    ADD COLUMN IF NOT EXISTS version         BIGINT DEFAULT 0 NOT NULL,
+    ADD COLUMN IF NOT EXISTS updated_at      TIMESTAMP(6),
+    ADD COLUMN IF NOT EXISTS change_revision BIGINT DEFAULT 0 NOT NULL,
+    ADD COLUMN IF NOT EXISTS deleted_at      TIMESTAMP(6),
+    ADD COLUMN IF NOT EXISTS search_vector   TSVECTOR;
+
+-- allocationSize 50 in Note: ids are handed out in pooled blocks so inserts can be batched.
+-- The sequence starts past the ids the identity column already handed out
+ALTER TABLE notes ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS notes_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('notes_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM notes) + 50, (SELECT last_value FROM notes_seq)));
+
+-- Full-text search; later writes keep search_vector current from the application
+UPDATE notes
+SET search_vector = setweight(to_tsvector('simple', coalesce(title, '')), 'A') ||
+                    setweight(to_tsvector('simple', coalesce(content, '')), 'B')
+WHERE search_vector IS NULL AND deleted_at IS NULL;
+CREATE INDEX IF NOT EXISTS idx_notes_search_vector ON notes USING GIN (search_vector);
+
+-- Delta sync (/api/notes/changes) walks a user's history by change revision; tombstones are purged by deleted_at
+CREATE INDEX IF NOT EXISTS idx_notes_user_change_revision ON notes (user_id, change_revision, id);
+CREATE INDEX IF NOT EXISTS idx_notes_deleted_at ON notes (deleted_at) WHERE deleted_at IS NOT NULL;
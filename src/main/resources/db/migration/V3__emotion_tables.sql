@@ -0,0 +1,22 @@
+-- Emotion tagging: one label per note, plus per-user daily counters adjusted incrementally by the pipeline.
+-- Existing notes have no row here yet; the pipeline's sweep picks them up
+CREATE TABLE IF NOT EXISTS note_emotions (
+    note_id      BIGINT PRIMARY KEY REFERENCES notes (id) ON DELETE CASCADE,
+    user_id      BIGINT           NOT NULL,
+    created_at   TIMESTAMP        NOT NULL,
+    label        VARCHAR(16)      NOT NULL,
+    valence      DOUBLE PRECISION NOT NULL,
+    scores       JSONB            NOT NULL,
+    note_version BIGINT           NOT NULL,
+    analyzed_at  TIMESTAMP        NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_note_emotions_user_label ON note_emotions (user_id, label, created_at DESC, note_id DESC);
+
+CREATE TABLE IF NOT EXISTS mood_daily (
+    user_id     BIGINT           NOT NULL,
+    day         DATE             NOT NULL,
+    label       VARCHAR(16)      NOT NULL,
+    note_count  INT              NOT NULL,
+    valence_sum DOUBLE PRECISION NOT NULL,
+    PRIMARY KEY (user_id, day, label)
+);
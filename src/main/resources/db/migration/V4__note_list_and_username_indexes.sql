@@ -0,0 +1,8 @@
+-- Dashboard list and keyset pages: WHERE user_id = ? AND deleted_at IS NULL ORDER BY created_at DESC, id DESC.
+-- id is DESC as well so the row comparison (created_at, id) < (?, ?) is a single forward range scan
+CREATE INDEX IF NOT EXISTS idx_notes_user_created ON notes (user_id, created_at DESC, id DESC)
+    WHERE deleted_at IS NULL;
+
+-- findByUsername runs for every authenticated request (behind the principals cache) and on every login.
+-- Fails on databases that already hold duplicate usernames; those must be resolved by hand first
+CREATE UNIQUE INDEX IF NOT EXISTS ux_users_username ON users (username);
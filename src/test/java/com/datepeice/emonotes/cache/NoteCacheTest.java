@@ -0,0 +1,112 @@
+package com.datepeice.emonotes.cache;
+
+import com.datepeice.emonotes.datasource.ReadYourWrites;
+import com.datepeice.emonotes.entity.Note;
+import com.datepeice.emonotes.entity.User;
+import com.datepeice.emonotes.repository.NoteRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NoteCacheTest {
+
+    private final NoteRepository noteRepository = mock(NoteRepository.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final ReadYourWrites readYourWrites = new ReadYourWrites(Duration.ofMinutes(1));
+    private final NoteCache cache = new NoteCache(noteRepository, null, transactionManager, readYourWrites,
+            new SimpleMeterRegistry(), DataSize.ofMegabytes(1), Duration.ofMinutes(5), false);
+
+    @Test
+    void servesRepeatedReadsFromMemoryAndReloadsAfterEviction() {
+        when(noteRepository.findById(1L)).thenReturn(Optional.of(note(1L, 10L, "<p>v1</p>")));
+
+        assertThat(cache.get(1L)).get().extracting(NoteCache.CachedNote::userId).isEqualTo(10L);
+        assertThat(cache.get(1L)).get().extracting(cached -> cached.note().getContent()).isEqualTo("<p>v1</p>");
+        verify(noteRepository, times(1)).findById(1L);
+
+        // Вне транзакции сброс происходит сразу
+        cache.evictAfterCommit(List.of(1L));
+        cache.get(1L);
+        verify(noteRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void concurrentMissesShareOneLoad() throws Exception {
+        var loading = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        when(noteRepository.findById(2L)).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(note(2L, 10L, "<p>body</p>"));
+        });
+
+        var first = CompletableFuture.supplyAsync(() -> cache.get(2L));
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+        var second = CompletableFuture.supplyAsync(() -> cache.get(2L));
+        Thread.sleep(50);
+        release.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).isPresent();
+        assertThat(second.get(5, TimeUnit.SECONDS)).isPresent();
+        verify(noteRepository, times(1)).findById(2L);
+    }
+
+    @Test
+    void missingAndDeletedNotesAreNotCached() {
+        Note deleted = note(3L, 10L, "<p>gone</p>");
+        deleted.markDeleted(5);
+        when(noteRepository.findById(3L)).thenReturn(Optional.of(deleted));
+
+        assertThat(cache.get(3L)).isEmpty();
+        assertThat(cache.get(3L)).isEmpty();
+        verify(noteRepository, times(2)).findById(3L);
+    }
+
+    @Test
+    void loadsInReadOnlyTransactionPinnedToPrimary() {
+        var onPrimary = new AtomicBoolean();
+        when(noteRepository.findById(4L)).thenAnswer(invocation -> {
+            onPrimary.set(readYourWrites.primaryRequested());
+            return Optional.of(note(4L, 10L, "body"));
+        });
+
+        cache.get(4L);
+
+        assertThat(onPrimary).isTrue();
+        assertThat(readYourWrites.primaryRequested()).isFalse();
+        verify(transactionManager).getTransaction(argThat(definition -> definition.isReadOnly()));
+    }
+
+    @Test
+    void parsesNotifyPayload() {
+        assertThat(NoteCache.parsePayload("1,22,333")).containsExactly(1L, 22L, 333L);
+        assertThat(NoteCache.parsePayload(" 7 ,,")).containsExactly(7L);
+    }
+
+    private static Note note(Long id, Long userId, String content) {
+        var user = new User();
+        user.setId(userId);
+        var note = new Note();
+        note.setId(id);
+        note.setUser(user);
+        note.setTitle("Title");
+        note.setContent(content);
+        return note;
+    }
+}
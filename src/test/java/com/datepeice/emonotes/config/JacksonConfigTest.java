@@ -0,0 +1,40 @@
+package com.datepeice.emonotes.config;
+
+import com.datepeice.emonotes.dto.NoteResponse;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JacksonConfigTest {
+
+    private final JacksonConfig config = new JacksonConfig();
+
+    @Test
+    void binaryFormatsKeepJsonFieldsAndDates() throws Exception {
+        var note = new NoteResponse(7L, "Title", "<p>body</p>", 3, LocalDateTime.of(2026, 1, 2, 3, 4), null);
+
+        for (ObjectMapper mapper : new ObjectMapper[]{
+                config.cborHttpMessageConverter(builder()).getObjectMapper(),
+                config.smileHttpMessageConverter(builder()).getObjectMapper()}) {
+            JsonNode decoded = mapper.readTree(mapper.writeValueAsBytes(note));
+
+            assertThat(decoded.get("title").asText()).isEqualTo("Title");
+            assertThat(decoded.get("version").asLong()).isEqualTo(3);
+            // Даты строкой ISO, как в JSON, а не массивом
+            assertThat(decoded.get("createdAt").asText()).isEqualTo("2026-01-02T03:04:00");
+        }
+    }
+
+    private Jackson2ObjectMapperBuilder builder() {
+        return new Jackson2ObjectMapperBuilder()
+                .modules(config.blackbirdModule(), new JavaTimeModule())
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+}
@@ -0,0 +1,71 @@
+package com.datepeice.emonotes.controller;
+
+import com.datepeice.emonotes.cache.NoteCache;
+import com.datepeice.emonotes.dto.NoteResponse;
+import com.datepeice.emonotes.entity.User;
+import com.datepeice.emonotes.events.NoteEventStream;
+import com.datepeice.emonotes.search.NoteSearchIndex;
+import com.datepeice.emonotes.service.NoteService;
+import com.datepeice.emonotes.service.NoteTransferService;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class NoteControllerTest {
+
+    private final NoteCache noteCache = mock(NoteCache.class);
+    private final NoteService noteService = mock(NoteService.class);
+    private final NoteController controller = new NoteController(noteCache, mock(NoteSearchIndex.class), noteService,
+            mock(NoteTransferService.class), mock(NoteEventStream.class));
+    private final User user = user(3L);
+
+    @Test
+    void notModifiedOnlyForTheSameNotesTag() {
+        when(noteService.notesRevision(user)).thenReturn(12L);
+        when(noteCache.get(5L)).thenReturn(Optional.of(cached(3L, 5L, 8L)));
+        String eTag = NoteETags.forNote(3, 5, 12, 8);
+
+        var response = controller.getNoteById(5L, "\"v1\", " + eTag, user);
+
+        assertThat(response.getStatusCode().value()).isEqualTo(304);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.ETAG)).isEqualTo(eTag);
+    }
+
+    @Test
+    void listOrOtherNoteTagIsNotAValidator() {
+        when(noteService.notesRevision(user)).thenReturn(12L);
+        when(noteCache.get(5L)).thenReturn(Optional.of(cached(3L, 5L, 8L)));
+
+        assertThat(controller.getNoteById(5L, NoteETags.forList(3, 12), user).getStatusCode().value()).isEqualTo(200);
+        assertThat(controller.getNoteById(5L, NoteETags.forNote(3, 6, 12, 8), user).getStatusCode().value()).isEqualTo(200);
+    }
+
+    // Без заметки или для чужой заметки 304 не отдаём, даже если клиент прислал подходящий по форме тег
+    @Test
+    void missingOrForeignNoteIsNeverNotModified() {
+        when(noteService.notesRevision(user)).thenReturn(12L);
+        when(noteCache.get(5L)).thenReturn(Optional.of(cached(4L, 5L, 8L)));
+        when(noteCache.get(7L)).thenReturn(Optional.empty());
+
+        assertThat(controller.getNoteById(5L, "*", user).getStatusCode().value()).isEqualTo(403);
+        assertThat(controller.getNoteById(7L, NoteETags.forNote(3, 7, 12, 1), user).getStatusCode().value())
+                .isEqualTo(403);
+    }
+
+    private static NoteCache.CachedNote cached(Long userId, Long id, long version) {
+        var now = LocalDateTime.of(2024, 1, 1, 0, 0);
+        return new NoteCache.CachedNote(userId, new NoteResponse(id, "Title", "Content", version, now, now));
+    }
+
+    private static User user(Long id) {
+        var user = new User();
+        user.setId(id);
+        return user;
+    }
+}
@@ -0,0 +1,47 @@
+package com.datepeice.emonotes.controller;
+
+import com.datepeice.emonotes.exception.BadRequestException;
+import com.datepeice.emonotes.exception.PreconditionRequiredException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class NoteETagsTest {
+
+    @Test
+    void readsVersionFromWriteAndReadTags() {
+        assertThat(NoteETags.parseVersion("\"v7\"")).isEqualTo(7L);
+        assertThat(NoteETags.parseVersion("W/\"u3-r12-v8\"")).isEqualTo(8L);
+    }
+
+    @Test
+    void missingHeaderOrWildcardSkipsVersionCheck() {
+        assertThat(NoteETags.parseVersion(null)).isNull();
+        assertThat(NoteETags.parseVersion(" ")).isNull();
+        assertThat(NoteETags.parseVersion("*")).isNull();
+    }
+
+    @Test
+    void rejectsMalformedIfMatch() {
+        assertThatThrownBy(() -> NoteETags.parseVersion("\"u3-r12\"")).isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> NoteETags.parseVersion("\"vabc\"")).isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void wholeNoteReplaceRequiresIfMatch() {
+        assertThatThrownBy(() -> NoteETags.requireVersion(null)).isInstanceOf(PreconditionRequiredException.class);
+        assertThat(NoteETags.requireVersion("*")).isNull();
+        assertThat(NoteETags.requireVersion("\"v3\"")).isEqualTo(3L);
+    }
+
+    @Test
+    void ifNoneMatchComparesWholeTagsFromList() {
+        String eTag = NoteETags.forNote(3, 5, 12, 8);
+        assertThat(NoteETags.matches("\"v1\", W/" + eTag, eTag)).isTrue();
+        assertThat(NoteETags.matches("*", eTag)).isTrue();
+        assertThat(NoteETags.matches(NoteETags.forList(3, 12), eTag)).isFalse();
+        assertThat(NoteETags.matches(NoteETags.forNote(3, 6, 12, 8), eTag)).isFalse();
+        assertThat(NoteETags.matches(null, eTag)).isFalse();
+    }
+}
@@ -0,0 +1,93 @@
+package com.datepeice.emonotes.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReplicaRoutingDataSourceTest {
+
+    private final DataSource primary = mock(DataSource.class);
+    private final DataSource replica = mock(DataSource.class);
+    private final Connection primaryConnection = mock(Connection.class);
+    private final Connection replicaConnection = mock(Connection.class);
+    private final ReadYourWrites readYourWrites = new ReadYourWrites(Duration.ofMinutes(1));
+    private ReplicaRoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        routing = new ReplicaRoutingDataSource(primary, List.of(replica), readYourWrites,
+                Duration.ofSeconds(10), new SimpleMeterRegistry());
+        routing.afterPropertiesSet();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clear();
+    }
+
+    @Test
+    void readOnlyTransactionsGoToReplicaAndWritesToPrimary() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertThat(routing.getConnection()).isSameAs(replicaConnection);
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        assertThat(routing.getConnection()).isSameAs(primaryConnection);
+    }
+
+    @Test
+    void readsStayOnPrimaryRightAfterTheUsersWrite() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        readYourWrites.withSubject("alice", this::connection);
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertThat(readYourWrites.withSubject("alice", this::connection)).isSameAs(primaryConnection);
+        assertThat(readYourWrites.withSubject("bob", this::connection)).isSameAs(replicaConnection);
+    }
+
+    // Так читает NoteCache: свежие данные с primary, но без sticky-окна для читателя
+    @Test
+    void primaryHintRoutesReadsToPrimaryWithoutMarkingTheReaderSticky() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThat(readYourWrites.withSubject("alice", () -> readYourWrites.onPrimary(this::connection)))
+                .isSameAs(primaryConnection);
+        assertThat(readYourWrites.isSticky("alice")).isFalse();
+        assertThat(readYourWrites.withSubject("alice", this::connection)).isSameAs(replicaConnection);
+    }
+
+    @Test
+    void fallsBackToPrimaryWhenReplicaFails() throws SQLException {
+        when(replica.getConnection()).thenThrow(new SQLException("connection refused"));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThat(routing.getConnection()).isSameAs(primaryConnection);
+        // Реплика выведена из ротации, повторной попытки не будет до проверки здоровья
+        assertThat(routing.getConnection()).isSameAs(primaryConnection);
+        verify(replica, times(1)).getConnection();
+    }
+
+    private Connection connection() {
+        try {
+            return routing.getConnection();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
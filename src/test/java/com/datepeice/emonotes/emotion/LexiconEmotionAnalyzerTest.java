@@ -0,0 +1,35 @@
+package com.datepeice.emonotes.emotion;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class LexiconEmotionAnalyzerTest {
+
+    private final LexiconEmotionAnalyzer analyzer = new LexiconEmotionAnalyzer();
+
+    @Test
+    void picksDominantEmotionAndPositiveValence() {
+        EmotionScore score = analyzer.analyze("So happy today, we laughed a lot. A bit tired though.");
+
+        assertThat(score.dominant()).isEqualTo(Emotion.JOY);
+        assertThat(score.valence()).isPositive();
+        assertThat(score.scores()).containsKeys(Emotion.JOY, Emotion.SADNESS);
+        assertThat(score.scores().values().stream().mapToDouble(Double::doubleValue).sum()).isCloseTo(1.0, within(1e-9));
+    }
+
+    @Test
+    void negationFlipsValenceWithoutCountingTheEmotion() {
+        EmotionScore score = analyzer.analyze("I am not happy at all");
+
+        assertThat(score.dominant()).isEqualTo(Emotion.NEUTRAL);
+        assertThat(score.valence()).isNegative();
+    }
+
+    @Test
+    void textWithoutLexiconWordsIsNeutral() {
+        assertThat(analyzer.analyze("Buy milk and bread")).isEqualTo(EmotionScore.NEUTRAL);
+        assertThat(analyzer.analyze("Мне сегодня грустно")).extracting(EmotionScore::dominant).isEqualTo(Emotion.SADNESS);
+    }
+}
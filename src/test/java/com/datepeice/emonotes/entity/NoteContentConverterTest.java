@@ -0,0 +1,37 @@
+package com.datepeice.emonotes.entity;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NoteContentConverterTest {
+
+    private final NoteContentConverter converter = new NoteContentConverter();
+
+    @Test
+    void keepsSmallContentRaw() {
+        byte[] data = converter.convertToDatabaseColumn("<p>short note</p>");
+
+        assertThat(data[0]).isEqualTo(NoteContentConverter.FORMAT_RAW);
+        assertThat(converter.convertToEntityAttribute(data)).isEqualTo("<p>short note</p>");
+    }
+
+    @Test
+    void compressesLargeTiptapHtml() {
+        String html = tiptapDocument(300);
+        byte[] data = converter.convertToDatabaseColumn(html);
+
+        assertThat(data[0]).isEqualTo(NoteContentConverter.FORMAT_DEFLATE);
+        assertThat(data.length).isLessThan(html.length() / 4);
+        assertThat(converter.convertToEntityAttribute(data)).isEqualTo(html);
+    }
+
+    private static String tiptapDocument(int paragraphs) {
+        var html = new StringBuilder();
+        for (int i = 0; i < paragraphs; i++) {
+            html.append("<p class=\"paragraph\">Paragraph number ").append(i)
+                    .append(" with <strong>bold</strong> and <em>italic</em> text.</p>");
+        }
+        return html.toString();
+    }
+}
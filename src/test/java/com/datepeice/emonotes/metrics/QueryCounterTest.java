@@ -0,0 +1,48 @@
+package com.datepeice.emonotes.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class QueryCounterTest {
+
+    private final QueryCounter inspector = new QueryCounter();
+
+    @Test
+    void countsOnlyInsideOpenScope() {
+        inspector.inspect("select 1");
+
+        try (var scope = QueryCounter.open(0)) {
+            inspector.inspect("select 1");
+            inspector.inspect("select 2");
+            assertThat(scope.count()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void strictScopeRejectsStatementsOverLimit() {
+        try (var scope = QueryCounter.open(2)) {
+            inspector.inspect("select n from notes n where n.id = 1");
+            inspector.inspect("select n from notes n where n.id = 2");
+
+            assertThatThrownBy(() -> inspector.inspect("select n from notes n where n.id = 3"))
+                    .isInstanceOf(QueryCounter.QueryLimitExceededException.class)
+                    .hasMessageContaining("possible N+1");
+            assertThat(scope.count()).isEqualTo(3);
+        }
+    }
+
+    @Test
+    void nestedScopeRestoresOuterScope() {
+        try (var outer = QueryCounter.open(0)) {
+            inspector.inspect("select 1");
+            try (var inner = QueryCounter.open(0)) {
+                inspector.inspect("select 2");
+                assertThat(inner.count()).isEqualTo(1);
+            }
+            inspector.inspect("select 3");
+            assertThat(outer.count()).isEqualTo(2);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.datepeice.emonotes.repository;
+
+import com.datepeice.emonotes.entity.Note;
+import com.datepeice.emonotes.entity.NoteContentConverter;
+import com.datepeice.emonotes.entity.User;
+import com.datepeice.emonotes.metrics.QueryCounter;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Owner-scoped операции заметки: ровно один SQL на вызов и без загрузки User
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+class NoteRepositoryTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private NoteRepository noteRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private User owner;
+    private User stranger;
+    private Note note;
+
+    @BeforeEach
+    void setUp() {
+        owner = entityManager.persist(user("owner"));
+        stranger = entityManager.persist(user("stranger"));
+        var created = new Note();
+        created.setTitle("Title");
+        created.setContent("<p>body</p>");
+        created.setUser(owner);
+        note = entityManager.persistAndFlush(created);
+        entityManager.clear();
+    }
+
+    @Test
+    void findOwnedIsOneStatementWithoutLoadingUser() {
+        Optional<Note> found;
+        try (var scope = QueryCounter.open(0)) {
+            found = noteRepository.findOwned(note.getId(), owner.getId());
+            assertThat(scope.count()).isEqualTo(1);
+        }
+        assertThat(found).isPresent();
+        assertThat(Hibernate.isInitialized(found.get().getUser())).isFalse();
+        assertThat(found.get().getUser().getId()).isEqualTo(owner.getId());
+
+        assertThat(noteRepository.findOwned(note.getId(), stranger.getId())).isEmpty();
+    }
+
+    @Test
+    void updateOwnedChecksOwnerAndVersionInOneStatement() {
+        byte[] content = new NoteContentConverter().convertToDatabaseColumn("<p>new</p>");
+
+        try (var scope = QueryCounter.open(0)) {
+            List<Object[]> updated = noteRepository.updateOwned(note.getId(), owner.getId(), "New", content, "new",
+                    note.getVersion(), 1, LocalDateTime.now());
+            assertThat(scope.count()).isEqualTo(1);
+            assertThat(updated).hasSize(1);
+            assertThat(((Number) updated.get(0)[0]).longValue()).isEqualTo(note.getVersion() + 1);
+        }
+
+        assertThat(noteRepository.updateOwned(note.getId(), owner.getId(), "Stale", content, "stale",
+                note.getVersion(), 2, LocalDateTime.now())).isEmpty();
+        assertThat(noteRepository.updateOwned(note.getId(), stranger.getId(), "Foreign", content, "foreign",
+                null, 2, LocalDateTime.now())).isEmpty();
+        // Без If-Match - last-write-wins: версия не сравнивается
+        assertThat(noteRepository.updateOwned(note.getId(), owner.getId(), "Blind", content, "blind",
+                null, 3, LocalDateTime.now())).hasSize(1);
+        entityManager.clear();
+        assertThat(noteRepository.findOwned(note.getId(), owner.getId()))
+                .get().extracting(Note::getTitle, Note::getContent).containsExactly("Blind", "<p>new</p>");
+    }
+
+    @Test
+    void markDeletedIsScopedToOwner() {
+        try (var scope = QueryCounter.open(0)) {
+            assertThat(noteRepository.markDeleted(List.of(note.getId()), stranger.getId(), 1, LocalDateTime.now())).isEmpty();
+            assertThat(noteRepository.markDeleted(List.of(note.getId()), owner.getId(), 1, LocalDateTime.now()))
+                    .containsExactly(note.getId());
+            assertThat(noteRepository.markDeleted(List.of(note.getId()), owner.getId(), 2, LocalDateTime.now())).isEmpty();
+            assertThat(scope.count()).isEqualTo(3);
+        }
+        entityManager.clear();
+        assertThat(noteRepository.findOwned(note.getId(), owner.getId())).isEmpty();
+    }
+
+    private static User user(String username) {
+        var user = new User();
+        user.setUsername(username);
+        user.setPassword("hash");
+        user.setRoles("ROLE_USER");
+        return user;
+    }
+}
@@ -0,0 +1,95 @@
+package com.datepeice.emonotes.repository;
+
+import com.datepeice.emonotes.entity.Note;
+import com.datepeice.emonotes.entity.User;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// База, созданная ddl-auto=update до Flyway: baseline на V1, затем V2+. Подъём контекста уже проверяет
+// ddl-auto=validate, тесты - что данные пережили миграцию
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+class SchemaMigrationTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NoteRepository noteRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    // Ровно то, что Hibernate создавал для исходных User и Note; контекст Spring поднимается позже
+    @BeforeAll
+    static void createBaselineDatabase() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+             Statement statement = connection.createStatement()) {
+            statement.execute("create table users (id bigint generated by default as identity, mfa_secret varchar(255), " +
+                    "password varchar(255), roles varchar(255), username varchar(255), primary key (id))");
+            statement.execute("create table notes (id bigint generated by default as identity, content TEXT, " +
+                    "created_at timestamp(6), title varchar(255), user_id bigint not null, primary key (id))");
+            statement.execute("alter table if exists notes add constraint FKechaouoa6kus6k1dpix1u91c " +
+                    "foreign key (user_id) references users");
+            statement.execute("insert into users (username, password, roles) values ('legacy', 'hash', 'ROLE_USER')");
+            statement.execute("insert into notes (user_id, title, content, created_at) " +
+                    "select id, 'Walk', '**Calm** by the river', now() from users");
+            statement.execute("insert into notes (user_id, title, content, created_at) " +
+                    "select id, 'Work', 'Deadline tomorrow', now() from users");
+        }
+    }
+
+    @Test
+    void baselinesExistingDatabaseAndAppliesLaterMigrations() {
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT version FROM flyway_schema_history WHERE type = 'BASELINE'", String.class)).isEqualTo("1");
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM flyway_schema_history WHERE success AND type = 'SQL'", Integer.class)).isEqualTo(3);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM notes WHERE version = 0 AND change_revision = 0 AND deleted_at IS NULL", Integer.class))
+                .isEqualTo(2);
+    }
+
+    @Test
+    void existingNotesAreSearchableAndReadable() {
+        Long userId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = 'legacy'", Long.class);
+        Long walkId = jdbcTemplate.queryForObject("SELECT id FROM notes WHERE title = 'Walk'", Long.class);
+
+        assertThat(noteRepository.searchIdsByUser(userId, "river", 10)).containsExactly(walkId);
+        assertThat(noteRepository.findOwned(walkId, userId))
+                .get().extracting(Note::getContent).isEqualTo("**Calm** by the river");
+    }
+
+    @Test
+    void newNotesTakeIdsPastTheIdentityRange() {
+        Long maxId = jdbcTemplate.queryForObject("SELECT max(id) FROM notes", Long.class);
+        var note = new Note();
+        note.setTitle("New");
+        note.setContent("after the migration");
+        note.setUser(entityManager.find(User.class,
+                jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = 'legacy'", Long.class)));
+
+        assertThat(entityManager.persistAndFlush(note).getId()).isGreaterThan(maxId);
+    }
+}
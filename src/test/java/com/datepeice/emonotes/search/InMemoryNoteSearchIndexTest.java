@@ -0,0 +1,69 @@
+package com.datepeice.emonotes.search;
+
+import com.datepeice.emonotes.dto.NotePreview;
+import com.datepeice.emonotes.entity.Note;
+import com.datepeice.emonotes.entity.User;
+import com.datepeice.emonotes.repository.NoteRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class InMemoryNoteSearchIndexTest {
+
+    private InMemoryNoteSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new InMemoryNoteSearchIndex(mock(NoteRepository.class));
+    }
+
+    @Test
+    void ranksTitleMatchesAboveBodyMatches() {
+        index.index(note(1L, 10L, "Groceries", "<p>milk and bread</p>"));
+        index.index(note(2L, 10L, "Weekend", "<p>buy groceries on saturday</p>"));
+
+        List<NotePreview> results = index.search(10L, "groceries", 10);
+
+        assertThat(results).extracting(NotePreview::getId).containsExactly(1L, 2L);
+        assertThat(results.get(1).getPreviewContent()).contains("<mark>groceries</mark>");
+    }
+
+    @Test
+    void requiresAllTermsAndScopesToOwner() {
+        index.index(note(1L, 10L, "Trip", "<p>pack the tent and the stove</p>"));
+        index.index(note(2L, 10L, "Camping", "<p>tent only</p>"));
+        index.index(note(3L, 20L, "Other user", "<p>tent and stove</p>"));
+
+        assertThat(index.search(10L, "tent stove", 10)).extracting(NotePreview::getId).containsExactly(1L);
+        assertThat(index.search(20L, "tent stove", 10)).extracting(NotePreview::getId).containsExactly(3L);
+    }
+
+    @Test
+    void reindexAndRemoveDropStaleTerms() {
+        index.index(note(1L, 10L, "Draft", "<p>first version</p>"));
+        index.index(note(1L, 10L, "Draft", "<p>second version</p>"));
+
+        assertThat(index.search(10L, "first", 10)).isEmpty();
+        assertThat(index.search(10L, "second", 10)).hasSize(1);
+
+        index.remove(1L);
+        assertThat(index.search(10L, "second", 10)).isEmpty();
+    }
+
+    private static Note note(Long id, Long userId, String title, String content) {
+        var user = new User();
+        user.setId(userId);
+        var note = new Note();
+        note.setId(id);
+        note.setUser(user);
+        note.setTitle(title);
+        note.setContent(content);
+        note.setCreatedAt(LocalDateTime.now());
+        return note;
+    }
+}
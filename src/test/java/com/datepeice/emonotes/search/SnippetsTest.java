@@ -0,0 +1,30 @@
+package com.datepeice.emonotes.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SnippetsTest {
+
+    @Test
+    void escapesTextAroundMarks() {
+        String snippet = Snippets.highlight("<script>alert(1)</script> & groceries", List.of("groceries"));
+
+        assertThat(snippet).isEqualTo("&lt;script&gt;alert(1)&lt;/script&gt; &amp; <mark>groceries</mark>");
+    }
+
+    @Test
+    void escapesWindowWithoutMatches() {
+        assertThat(Snippets.highlight("a <b> c", List.of("zzz"))).isEqualTo("a &lt;b&gt; c");
+    }
+
+    @Test
+    void marksStayAlignedAfterCharactersThatGrowWhenLowercased() {
+        assertThat(Snippets.highlight("İzmir and groceries", List.of("groceries")))
+                .isEqualTo("İzmir and <mark>groceries</mark>");
+        assertThat(Snippets.highlight("İstanbul trip", Snippets.tokenize("İSTANBUL")))
+                .isEqualTo("<mark>İstanbul</mark> trip");
+    }
+}
@@ -0,0 +1,55 @@
+package com.datepeice.emonotes.security;
+
+import com.datepeice.emonotes.entity.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtCoreTest {
+
+    private static final String SECRET = "test-secret-key-that-is-long-enough-for-hs256";
+
+    @Test
+    void verifiesGeneratedTokenOnce() {
+        var jwtCore = new JwtCore(SECRET, 0);
+        String token = jwtCore.generateToken(authentication("alice"));
+
+        var verified = jwtCore.verify(token);
+
+        assertThat(verified).isPresent();
+        assertThat(verified.get().subject()).isEqualTo("alice");
+        assertThat(verified.get().expiresAt()).isAfter(Instant.now());
+    }
+
+    @Test
+    void rejectsTamperedAndForeignTokens() {
+        var jwtCore = new JwtCore(SECRET, 100);
+        String token = jwtCore.generateToken(authentication("alice"));
+        String foreign = new JwtCore(SECRET + "-other", 0).generateToken(authentication("alice"));
+
+        assertThat(jwtCore.verify(token.substring(0, token.length() - 2) + "xx")).isEmpty();
+        assertThat(jwtCore.verify(foreign)).isEmpty();
+        assertThat(jwtCore.verify("not-a-jwt")).isEmpty();
+    }
+
+    @Test
+    void cachedVerificationReturnsSameResult() {
+        var jwtCore = new JwtCore(SECRET, 100);
+        String token = jwtCore.generateToken(authentication("bob"));
+
+        var first = jwtCore.verify(token);
+        var second = jwtCore.verify(token);
+
+        assertThat(second).isPresent();
+        assertThat(second.get()).isSameAs(first.get());
+    }
+
+    private static UsernamePasswordAuthenticationToken authentication(String username) {
+        var user = new User();
+        user.setUsername(username);
+        return new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+    }
+}
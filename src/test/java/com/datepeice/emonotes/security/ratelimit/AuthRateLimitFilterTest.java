@@ -0,0 +1,57 @@
+package com.datepeice.emonotes.security.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuthRateLimitFilterTest {
+
+    private final RateLimitProperties properties = properties();
+    private final AuthRateLimitFilter filter = new AuthRateLimitFilter(properties, new ObjectMapper());
+
+    @Test
+    void encodedPathSharesTheBucketOfTheEndpointItRoutesTo() throws Exception {
+        assertThat(call("/api/auth/signin", "/api/auth/signin").getStatus()).isEqualTo(200);
+        // Tomcat отдаёт декодированный servletPath; MVC направит этот запрос в тот же signin
+        assertThat(call("/api/auth/sign%69n", "/api/auth/signin").getStatus()).isEqualTo(429);
+    }
+
+    @Test
+    void unlistedAuthPathIsStillLimited() throws Exception {
+        assertThat(call("/api/auth/confirm-mfa-update", "/api/auth/confirm-mfa-update").getStatus()).isEqualTo(200);
+        assertThat(call("/api/auth/confirm-mfa-update", "/api/auth/confirm-mfa-update").getStatus()).isEqualTo(429);
+    }
+
+    @Test
+    void pathIgnoresTrailingSlash() {
+        var request = new MockHttpServletRequest("POST", "/api/auth/signin/");
+        request.setServletPath("/api/auth/signin/");
+
+        assertThat(AuthRateLimitFilter.path(request)).isEqualTo("/api/auth/signin");
+    }
+
+    private MockHttpServletResponse call(String requestUri, String servletPath) throws Exception {
+        var request = new MockHttpServletRequest("POST", requestUri);
+        request.setServletPath(servletPath);
+        request.setRemoteAddr("203.0.113.7");
+        var response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private static RateLimitProperties properties() {
+        var properties = new RateLimitProperties();
+        var signin = new RateLimitProperties.Endpoint();
+        signin.setPath("/api/auth/signin");
+        signin.setPerIp(new RateLimitProperties.Limit(1, Duration.ofHours(1)));
+        properties.getEndpoints().put("signin", signin);
+        properties.setUnlistedPerIp(new RateLimitProperties.Limit(1, Duration.ofHours(1)));
+        return properties;
+    }
+}
@@ -0,0 +1,47 @@
+package com.datepeice.emonotes.security.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketRateLimiterTest {
+
+    private static final long SECOND = Duration.ofSeconds(1).toNanos();
+
+    @Test
+    void allowsBurstUpToCapacityThenRefills() {
+        var limiter = new TokenBucketRateLimiter();
+        var limit = limit(3, Duration.ofSeconds(3));
+        long now = 1_000 * SECOND;
+
+        assertThat(limiter.tryAcquire("k", limit, now)).isZero();
+        assertThat(limiter.tryAcquire("k", limit, now)).isZero();
+        assertThat(limiter.tryAcquire("k", limit, now)).isZero();
+        assertThat(limiter.tryAcquire("k", limit, now)).isEqualTo(SECOND);
+
+        assertThat(limiter.tryAcquire("k", limit, now + SECOND)).isZero();
+        assertThat(limiter.tryAcquire("other", limit, now)).isZero();
+    }
+
+    @Test
+    void evictsOnlyIdleBuckets() {
+        var limiter = new TokenBucketRateLimiter();
+        var limit = limit(1, Duration.ofSeconds(1));
+        long now = 1_000 * SECOND;
+
+        limiter.tryAcquire("old", limit, now);
+        limiter.tryAcquire("fresh", limit, now + 60 * SECOND);
+        limiter.evictIdle(Duration.ofSeconds(30), now + 61 * SECOND);
+
+        assertThat(limiter.size()).isEqualTo(1);
+    }
+
+    private static RateLimitProperties.Limit limit(int capacity, Duration period) {
+        var limit = new RateLimitProperties.Limit();
+        limit.setCapacity(capacity);
+        limit.setPeriod(period);
+        return limit;
+    }
+}
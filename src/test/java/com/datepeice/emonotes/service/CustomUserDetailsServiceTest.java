@@ -0,0 +1,42 @@
+package com.datepeice.emonotes.service;
+
+import com.datepeice.emonotes.datasource.ReadYourWrites;
+import com.datepeice.emonotes.entity.User;
+import com.datepeice.emonotes.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CustomUserDetailsServiceTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final CustomUserDetailsService service =
+            new CustomUserDetailsService(userRepository, new ReadYourWrites(Duration.ofSeconds(10)));
+
+    @Test
+    void cachedPrincipalCarriesNoCredentialsAndHandsOutCopies() {
+        var stored = new User();
+        stored.setId(7L);
+        stored.setUsername("ann");
+        stored.setPassword("hash");
+        stored.setMfaSecret("secret");
+        stored.setRoles("ROLE_USER");
+        when(userRepository.findByUsername("ann")).thenReturn(Optional.of(stored));
+
+        CustomUserDetailsService.CachedPrincipal principal = service.loadPrincipal("ann");
+        User first = principal.toUser();
+        first.setMfaSecret("changed");
+        User second = principal.toUser();
+
+        assertThat(first).isNotSameAs(second);
+        assertThat(second.getPassword()).isNull();
+        assertThat(second.getMfaSecret()).isNull();
+        assertThat(second.getId()).isEqualTo(7L);
+        assertThat(second.getAuthorities()).extracting(Object::toString).containsExactly("ROLE_USER");
+    }
+}
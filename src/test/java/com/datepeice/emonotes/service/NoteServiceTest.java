@@ -0,0 +1,109 @@
+package com.datepeice.emonotes.service;
+
+import com.datepeice.emonotes.cache.NoteCache;
+import com.datepeice.emonotes.dto.NoteBody;
+import com.datepeice.emonotes.dto.NotePatch;
+import com.datepeice.emonotes.entity.User;
+import com.datepeice.emonotes.events.NoteChangePublisher;
+import com.datepeice.emonotes.exception.BadRequestException;
+import com.datepeice.emonotes.exception.PreconditionFailedException;
+import com.datepeice.emonotes.exception.ResourceNotFoundException;
+import com.datepeice.emonotes.repository.NoteRepository;
+import com.datepeice.emonotes.repository.UserRepository;
+import com.datepeice.emonotes.search.NoteSearchIndex;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class NoteServiceTest {
+
+    private final NoteRepository noteRepository = mock(NoteRepository.class);
+    private final NoteService service = new NoteService(noteRepository, mock(UserRepository.class),
+            mock(NoteSearchIndex.class), mock(NoteChangePublisher.class), mock(NoteCache.class));
+    private final User user = user(10L);
+
+    @Test
+    void updateWithStaleVersionIsPreconditionFailed() {
+        when(noteRepository.updateOwned(eq(1L), eq(10L), any(), any(), any(), eq(3L), anyLong(), any()))
+                .thenReturn(List.of());
+        when(noteRepository.existsOwned(1L, 10L)).thenReturn(true);
+
+        assertThatThrownBy(() -> service.update(1L, body("stale"), 3L, user))
+                .isInstanceOf(PreconditionFailedException.class);
+    }
+
+    @Test
+    void updateOfMissingOrForeignNoteIsNotFound() {
+        when(noteRepository.updateOwned(eq(1L), eq(10L), any(), any(), any(), any(), anyLong(), any()))
+                .thenReturn(List.of());
+
+        assertThatThrownBy(() -> service.update(1L, body("x"), 3L, user)).isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(() -> service.update(1L, body("x"), null, user)).isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    // If-Match: * - клиент явно выбрал перезапись без проверки версии
+    @Test
+    void updateWithWildcardSkipsVersionCheck() {
+        Object[] row = {4L, Timestamp.valueOf(LocalDateTime.of(2024, 1, 1, 0, 0))};
+        when(noteRepository.updateOwned(eq(1L), eq(10L), any(), any(), any(), isNull(), anyLong(), any()))
+                .thenReturn(List.<Object[]>of(row));
+
+        assertThat(service.update(1L, body("new"), null, user).getVersion()).isEqualTo(4L);
+    }
+
+    @Test
+    void appliesEditsSequentially() {
+        String result = NoteService.applyEdits("<p>hello world</p>", List.of(
+                edit(9, 5, "there"),
+                edit(3, 0, "oh, ")
+        ));
+
+        assertThat(result).isEqualTo("<p>oh, hello there</p>");
+    }
+
+    @Test
+    void rejectsOutOfBoundsEdit() {
+        assertThatThrownBy(() -> NoteService.applyEdits("short", List.of(edit(3, 10, ""))))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void rejectsEditWhoseEndOverflows() {
+        assertThatThrownBy(() -> NoteService.applyEdits("short", List.of(edit(Integer.MAX_VALUE, 1, ""))))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> NoteService.applyEdits("short", List.of(edit(2, Integer.MAX_VALUE, ""))))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    private static NoteBody body(String content) {
+        var body = new NoteBody();
+        body.setTitle("Title");
+        body.setContent(content);
+        return body;
+    }
+
+    private static User user(Long id) {
+        var user = new User();
+        user.setId(id);
+        return user;
+    }
+
+    private static NotePatch.TextEdit edit(int offset, int deleteCount, String insert) {
+        var edit = new NotePatch.TextEdit();
+        edit.setOffset(offset);
+        edit.setDeleteCount(deleteCount);
+        edit.setInsert(insert);
+        return edit;
+    }
+}
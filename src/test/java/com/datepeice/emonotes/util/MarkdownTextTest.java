@@ -0,0 +1,40 @@
+package com.datepeice.emonotes.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MarkdownTextTest {
+
+    @Test
+    void stripsMarkdownSyntaxButKeepsLines() {
+        String markdown = "# Plan\n\n- **Tom** & _Jerry_\n- see [docs](https://example.com)\n\n> `code` stays";
+
+        assertThat(MarkdownText.toPlainText(markdown))
+                .isEqualTo("Plan\n\nTom & Jerry\nsee docs\n\ncode stays");
+    }
+
+    @Test
+    void keepsAngleBracketsAndEscapedCharacters() {
+        assertThat(MarkdownText.toPlainText("a <b> c \\*not bold\\* and snake_case"))
+                .isEqualTo("a <b> c *not bold* and snake_case");
+    }
+
+    @Test
+    void previewKeepsMarkdownAndLineBreaks() {
+        String markdown = "## Today\r\n\r\n\r\n*   went   out\n1. ate";
+
+        assertThat(MarkdownText.preview(markdown, 200)).isEqualTo("## Today\n\n* went out\n1. ate");
+    }
+
+    @Test
+    void cutsPreviewOnWordBoundary() {
+        assertThat(MarkdownText.preview("one two\nthree four", 12)).isEqualTo("one two...");
+    }
+
+    @Test
+    void keepsShortTextWhole() {
+        assertThat(MarkdownText.preview("short", 200)).isEqualTo("short");
+        assertThat(MarkdownText.preview(null, 200)).isEmpty();
+    }
+}